@@ -0,0 +1,170 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.BaseClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the gateway's proxying overhead: building the request, passing the body through and, for
+ * {@code cachedGet}, the cache lookup. The server is replaced with a request factory returning a canned body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BaseClientBenchmark {
+
+    private static final String CACHE = "items";
+
+    @Param({"256", "65536"})
+    private int responseSize;
+
+    private Client client;
+
+    @Setup
+    public void setUp() {
+        byte[] body = new byte[responseSize];
+        Arrays.fill(body, (byte) 'a');
+
+        RestTemplate rest = new RestTemplate(new CannedResponseFactory(body));
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory("http://shareit-server/items"));
+        client = new Client(rest);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> get() {
+        return client.get("?from={from}&size={size}", 1L, Map.of("from", 0, "size", 10));
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> cachedGet() {
+        return client.cachedGet(CACHE, "search", "?from={from}&size={size}", 1L, Map.of("from", 0, "size", 10));
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> post() {
+        return client.post("", 1L, Map.of("name", "name", "description", "description", "available", true));
+    }
+
+    private static class Client extends BaseClient {
+
+        private Client(RestTemplate rest) {
+            super(rest, new ConcurrentMapCacheManager(CACHE));
+        }
+
+        @Override
+        protected ResponseEntity<Object> get(String path, Long userId, Map<String, Object> parameters) {
+            return super.get(path, userId, parameters);
+        }
+
+        @Override
+        protected ResponseEntity<Object> cachedGet(String cacheName, String scope, String path, Long userId,
+                                                   Map<String, Object> parameters) {
+            return super.cachedGet(cacheName, scope, path, userId, parameters);
+        }
+
+        @Override
+        protected <T> ResponseEntity<Object> post(String path, Long userId, T body) {
+            return super.post(path, userId, body);
+        }
+    }
+
+    private static class CannedResponseFactory implements ClientHttpRequestFactory {
+
+        private final byte[] body;
+
+        private CannedResponseFactory(byte[] body) {
+            this.body = body;
+        }
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+            return new AbstractClientHttpRequest() {
+                private final ByteArrayOutputStream requestBody = new ByteArrayOutputStream();
+
+                @Override
+                public String getMethodValue() {
+                    return httpMethod.name();
+                }
+
+                @Override
+                public URI getURI() {
+                    return uri;
+                }
+
+                @Override
+                protected OutputStream getBodyInternal(HttpHeaders headers) {
+                    return requestBody;
+                }
+
+                @Override
+                protected ClientHttpResponse executeInternal(HttpHeaders headers) {
+                    return new CannedResponse(body);
+                }
+            };
+        }
+    }
+
+    private static class CannedResponse implements ClientHttpResponse {
+
+        private final byte[] body;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private CannedResponse(byte[] body) {
+            this.body = body;
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setContentLength(body.length);
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            return HttpStatus.OK;
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return HttpStatus.OK.value();
+        }
+
+        @Override
+        public String getStatusText() {
+            return HttpStatus.OK.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
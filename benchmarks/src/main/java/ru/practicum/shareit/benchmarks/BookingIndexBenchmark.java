@@ -0,0 +1,180 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingShort;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link BookingIntervalIndex} with the SQL queries it stands in for: the overlap check of a new booking
+ * and the last and next bookings of a page of items. Runs the repositories and the index of the server against
+ * the in-memory H2 database of the {@code ci} profile, so the SQL side includes the repository proxy,
+ * the connection pool and the JDBC round trip, but no network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingIndexBenchmark {
+
+    private static final int ITEMS = 100;
+    private static final int PAGE_SIZE = 20;
+    private static final int PROBES = 1024;
+
+    @Param({"10", "100", "1000"})
+    private int bookingsPerItem;
+
+    private ConfigurableApplicationContext context;
+    private BookingIntervalIndex index;
+    private BookingRepository bookingRepository;
+
+    private LocalDateTime now;
+    private Long ownerId;
+    private List<Long> itemIds;
+    private List<List<Long>> pages;
+    private Probe[] probes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Persistence.class)
+                .profiles("ci")
+                .web(WebApplicationType.NONE)
+                .run("--shareit.booking-index=memory", "--logging.level.root=warn");
+        index = context.getBean(BookingIntervalIndex.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        seed(context.getBean(UserRepository.class), context.getBean(ItemRepository.class));
+        // Loading an item takes a query per call, so the index is filled up front and not measured.
+        index.findLastAndNextBookings(itemIds, now);
+
+        pages = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i += PAGE_SIZE) {
+            pages.add(itemIds.subList(i, i + PAGE_SIZE));
+        }
+
+        Random random = new Random(42);
+        probes = new Probe[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            LocalDateTime start = now.plusHours(random.nextInt(bookingsPerItem * 48) - bookingsPerItem * 24);
+            probes[i] = new Probe(itemIds.get(random.nextInt(ITEMS)), start, start.plusHours(1 + random.nextInt(24)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean isBookedIndex() {
+        Probe probe = nextProbe();
+        return index.isBooked(probe.itemId, probe.start, probe.end);
+    }
+
+    @Benchmark
+    public boolean isBookedSql() {
+        Probe probe = nextProbe();
+        return bookingRepository.existsApprovedOverlap(probe.itemId, probe.start, probe.end);
+    }
+
+    @Benchmark
+    public List<BookingShort> lastAndNextIndex() {
+        return index.findLastAndNextBookings(nextPage(), now);
+    }
+
+    @Benchmark
+    public List<BookingShort> lastAndNextSql() {
+        List<Long> page = nextPage();
+        return bookingRepository.findLastAndNextBookings(ownerId, page.get(0), page.get(page.size() - 1), now);
+    }
+
+    /**
+     * Every item gets {@code bookingsPerItem} approved bookings, one every two days, half of them in the past,
+     * with a random length of up to three days, so that some of them overlap.
+     */
+    private void seed(UserRepository userRepository, ItemRepository itemRepository) {
+
+        User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+        User booker = userRepository.save(new User(null, "booker", "booker@example.com"));
+        ownerId = owner.getId();
+
+        Random random = new Random(42);
+        itemIds = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = new Item(null, "item" + i, "description" + i, true);
+            item.setOwner(owner.getId());
+            item = itemRepository.save(item);
+            itemIds.add(item.getId());
+
+            List<Booking> bookings = new ArrayList<>(bookingsPerItem);
+            for (int j = 0; j < bookingsPerItem; j++) {
+                LocalDateTime start = now.plusDays(2L * (j - bookingsPerItem / 2)).plusHours(random.nextInt(24));
+                Booking booking = new Booking(null, start, start.plusHours(1 + random.nextInt(72)));
+                booking.setItem(item);
+                booking.setBooker(booker);
+                booking.setStatus(Status.APPROVED);
+                bookings.add(booking);
+            }
+            bookingRepository.saveAll(bookings);
+        }
+    }
+
+    private Probe nextProbe() {
+        return probes[next++ & (PROBES - 1)];
+    }
+
+    private List<Long> nextPage() {
+        return pages.get(Math.floorMod(next++, pages.size()));
+    }
+
+    /**
+     * Only the persistence layer and the index: the benchmarks jar also contains the gateway, whose beans
+     * a component scan of {@link ShareItServer} would pick up.
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = ShareItServer.class)
+    @EnableJpaRepositories(basePackageClasses = ShareItServer.class)
+    @Import(BookingIntervalIndex.class)
+    static class Persistence {
+    }
+
+    private static final class Probe {
+
+        private final Long itemId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private Probe(Long itemId, LocalDateTime start, LocalDateTime end) {
+            this.itemId = itemId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
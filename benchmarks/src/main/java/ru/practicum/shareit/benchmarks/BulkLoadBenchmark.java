@@ -0,0 +1,225 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.h2.tools.Server;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.*;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads {@code rows} items with a booking each through JPA, in transactions of {@value #CHUNK_SIZE} items,
+ * on the in-memory H2 database of the {@code ci} profile. {@link #current()} persists the entities of the server,
+ * whose ids come from pooled sequences, so that the inserts go out in JDBC batches. {@link #baseline()} persists
+ * the same rows mapped as they were before, with ids generated by identity columns, which Hibernate inserts
+ * one statement at a time to read each id back. The entity cache is off, so only the inserts are measured.
+ * <p>
+ * The in-memory database runs a statement as a method call, so it cannot tell a batch from single statements.
+ * With {@code connection=tcp} the same database is reached through the H2 TCP server on the loopback interface,
+ * so that every round trip goes over a socket as it does to a database server. Each iteration prints the JDBC
+ * statements Hibernate prepared per row loaded, a batch counting as one.
+ * <p>
+ * Every call adds its rows to the database, so a million rows are best loaded once per fork:
+ * {@code -wi 0 -i 1 -p rows=1000000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class BulkLoadBenchmark {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    @Param({"mem", "tcp"})
+    private String connection;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private Statistics statistics;
+    private Server server;
+
+    private Long userId;
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:bulk";
+        if (connection.equals("tcp")) {
+            server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+            url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:bulk";
+        }
+        context = new SpringApplicationBuilder(Persistence.class)
+                .profiles("ci")
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url, "--spring.jpa.properties.hibernate.generate_statistics=true",
+                        "--shareit.entity-cache.enabled=false", "--logging.level.root=warn");
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        entityManager = context.getBean(EntityManager.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        userId = context.getBean(UserRepository.class).save(new User(null, "user", "user@example.com")).getId();
+    }
+
+    @Setup(Level.Iteration)
+    public void clearStatistics() {
+        statistics.clear();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printStatistics() {
+        System.out.printf("%n%.3f JDBC statements prepared per row loaded%n",
+                (double) statistics.getPrepareStatementCount() / rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Benchmark
+    public int current() {
+        for (int first = 0; first < rows; first += CHUNK_SIZE) {
+            transactionTemplate.executeWithoutResult(status -> {
+                User user = entityManager.getReference(User.class, userId);
+                for (int i = 0; i < CHUNK_SIZE; i++) {
+                    Item item = new Item(null, "item", "description", true);
+                    item.setOwner(userId);
+                    entityManager.persist(item);
+
+                    Booking booking = new Booking(null, start, start.plusDays(1));
+                    booking.setItem(item);
+                    booking.setBooker(user);
+                    booking.setStatus(Status.APPROVED);
+                    entityManager.persist(booking);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public int baseline() {
+        for (int first = 0; first < rows; first += CHUNK_SIZE) {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < CHUNK_SIZE; i++) {
+                    IdentityItem item = new IdentityItem("item", "description", true, userId);
+                    entityManager.persist(item);
+                    entityManager.persist(new IdentityBooking(start, start.plusDays(1), item.id, userId,
+                            Status.APPROVED));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return rows;
+    }
+
+    /**
+     * {@link Item} as it was mapped before ids came from a sequence.
+     */
+    @Entity
+    @Table(name = "items")
+    static class IdentityItem {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        private String name;
+
+        private String description;
+
+        @Column(name = "is_available")
+        private Boolean available;
+
+        @Column(name = "owner_id")
+        private Long owner;
+
+        protected IdentityItem() {
+        }
+
+        IdentityItem(String name, String description, Boolean available, Long owner) {
+            this.name = name;
+            this.description = description;
+            this.available = available;
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * {@link Booking} as it was mapped before ids came from a sequence.
+     */
+    @Entity
+    @Table(name = "bookings")
+    static class IdentityBooking {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @Column(name = "start_date")
+        private LocalDateTime start;
+
+        @Column(name = "end_date")
+        private LocalDateTime end;
+
+        @Column(name = "item_id")
+        private Long itemId;
+
+        @Column(name = "booker_id")
+        private Long bookerId;
+
+        @Enumerated(EnumType.STRING)
+        private Status status;
+
+        protected IdentityBooking() {
+        }
+
+        IdentityBooking(LocalDateTime start, LocalDateTime end, Long itemId, Long bookerId, Status status) {
+            this.start = start;
+            this.end = end;
+            this.itemId = itemId;
+            this.bookerId = bookerId;
+            this.status = status;
+        }
+    }
+
+    /**
+     * The persistence layer only, see {@link BookingIndexBenchmark.Persistence}. The entity scan of
+     * {@link ShareItServer} also finds the identity mapped entities above.
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = ShareItServer.class)
+    @EnableJpaRepositories(basePackageClasses = ShareItServer.class)
+    static class Persistence {
+    }
+}
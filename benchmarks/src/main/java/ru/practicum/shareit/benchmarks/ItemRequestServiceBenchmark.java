@@ -0,0 +1,65 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ItemRequestServiceImpl#getAllRequests}, which is dominated by matching the items
+ * of a page to its requests. Repositories return prebuilt lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemRequestServiceBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int requests;
+
+    @Param({"1", "10"})
+    private int itemsPerRequest;
+
+    private ItemRequestServiceImpl requestService;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData(42);
+        List<User> users = data.users(100);
+        User user = users.get(0);
+        userId = user.getId();
+
+        List<ItemRequest> page = data.requests(requests, users.subList(1, users.size()));
+        List<Item> items = data.items(requests * itemsPerRequest, userId, page);
+
+        UserRepository userRepository = RepositoryStubs.of(UserRepository.class)
+                .on("findById", args -> Optional.of(user))
+                .build();
+        RequestRepository requestRepository = RepositoryStubs.of(RequestRepository.class)
+                .on("findAllPageable", args -> page)
+                .build();
+        ItemRepository itemRepository = RepositoryStubs.of(ItemRepository.class)
+                .on("findAllByRequest", args -> items)
+                .build();
+
+        requestService = new ItemRequestServiceImpl(itemRepository, userRepository, requestRepository);
+    }
+
+    @Benchmark
+    public List<ItemRequestDto> getAllRequests() {
+        return requestService.getAllRequests(userId, 0, requests);
+    }
+}
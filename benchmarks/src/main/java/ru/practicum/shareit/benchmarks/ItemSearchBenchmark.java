@@ -0,0 +1,161 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the search of {@link ItemSearchIndex} with the LIKE query of {@link ItemRepository#searchItems} it stands
+ * in for, on the in-memory H2 database of the {@code ci} profile. The queries mix words found in many items,
+ * parts of words, serial numbers found in one item and words found in none.
+ * <p>
+ * The setup prints the heap the index retains, measured as the used heap after a full collection with and without
+ * the index. The entity cache is off so that loading the index does not also fill the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemSearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int QUERIES = 64;
+    private static final String[] WORDS = {
+            "дрель", "перфоратор", "отвертка", "шуруповерт", "пила", "лобзик", "рубанок", "стамеска",
+            "молоток", "киянка", "уровень", "рулетка", "степлер", "паяльник", "фен", "насос",
+            "палатка", "спальник", "рюкзак", "котелок", "фонарь", "велосипед", "самокат", "лыжи",
+            "аккумуляторная", "сетевая", "ручная", "ударная", "строительный", "туристический", "детский", "складной"};
+
+    @Param({"10000", "100000"})
+    private int items;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private ItemSearchIndex index;
+
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Persistence.class)
+                .profiles("ci")
+                .web(WebApplicationType.NONE)
+                .run("--shareit.entity-cache.enabled=false", "--logging.level.root=warn");
+        itemRepository = context.getBean(ItemRepository.class);
+
+        Random random = new Random(42);
+        seed(context.getBean(UserRepository.class), random);
+
+        long withoutIndex = usedHeap();
+        index = new ItemSearchIndex(itemRepository);
+        index.load();
+        long withIndex = usedHeap();
+        System.out.printf("Item search index of %d items retains %.1f MB, %d bytes per item%n",
+                items, (withIndex - withoutIndex) / 1048576.0, (withIndex - withoutIndex) / items);
+
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            switch (i % 4) {
+                case 0:
+                    queries[i] = word;
+                    break;
+                case 1:
+                    queries[i] = word.substring(1, Math.min(word.length(), 5));
+                    break;
+                case 2:
+                    queries[i] = "SN" + (100000 + random.nextInt(items));
+                    break;
+                default:
+                    queries[i] = word + " " + WORDS[random.nextInt(WORDS.length)] + "x";
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDto> index() {
+        return index.search(nextQuery(), 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<ItemDto> like() {
+        return itemRepository.searchItems(nextQuery(), PageRequest.of(0, PAGE_SIZE)).stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Names of two words and descriptions of four words and a serial number, nine items in ten available.
+     */
+    private void seed(UserRepository userRepository, Random random) {
+
+        User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+
+        for (int first = 0; first < items; first += 1000) {
+            List<Item> batch = new ArrayList<>(1000);
+            for (int i = first; i < first + 1000; i++) {
+                String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+                StringBuilder description = new StringBuilder();
+                for (int j = 0; j < 4; j++) {
+                    description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+                }
+                description.append("SN").append(100000 + i);
+                Item item = new Item(null, name, description.toString(), random.nextInt(10) != 0);
+                item.setOwner(owner.getId());
+                batch.add(item);
+            }
+            itemRepository.saveAll(batch);
+        }
+    }
+
+    private String nextQuery() {
+        return queries[next++ & (QUERIES - 1)];
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * The persistence layer only, see {@link BookingIndexBenchmark.Persistence}. The index is built by the
+     * benchmark once the items are in the database.
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = ShareItServer.class)
+    @EnableJpaRepositories(basePackageClasses = ShareItServer.class)
+    static class Persistence {
+    }
+}
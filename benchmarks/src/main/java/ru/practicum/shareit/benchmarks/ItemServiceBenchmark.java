@@ -0,0 +1,85 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import ru.practicum.shareit.booking.dto.BookingShort;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the in-process part of {@link ItemServiceImpl#getItemsByUserId}: grouping comments by item,
+ * mapping to DTOs and attaching the last and next bookings. Repositories return prebuilt lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int items;
+
+    @Param({"0", "5"})
+    private int commentsPerItem;
+
+    private ItemServiceImpl itemService;
+    private Long ownerId;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData(42);
+        List<User> users = data.users(100);
+        ownerId = users.get(0).getId();
+
+        List<Item> ownerItems = data.items(items, ownerId, List.of());
+        List<Comment> comments = data.comments(ownerItems, commentsPerItem, users);
+        List<BookingShort> bookings = data.lastAndNextBookings(ownerItems, users);
+
+        UserRepository userRepository = RepositoryStubs.of(UserRepository.class)
+                .on("existsById", args -> true)
+                .build();
+        ItemRepository itemRepository = RepositoryStubs.of(ItemRepository.class)
+                .on("findAllByOwner", args -> ownerItems)
+                .build();
+        CommentRepository commentRepository = RepositoryStubs.of(CommentRepository.class)
+                .on("findAllByItem_OwnerAndItem_IdBetween", args -> comments)
+                .build();
+        BookingRepository bookingRepository = RepositoryStubs.of(BookingRepository.class)
+                .on("findLastAndNextBookings", args -> bookings)
+                .build();
+
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        itemService = new ItemServiceImpl(
+                itemRepository,
+                userRepository,
+                commentRepository,
+                bookingRepository,
+                RepositoryStubs.of(RequestRepository.class).build(),
+                beanFactory.getBeanProvider(ItemSearchIndex.class),
+                beanFactory.getBeanProvider(BookingIntervalIndex.class),
+                null,
+                null,
+                new ObjectMapper());
+    }
+
+    @Benchmark
+    public List<ItemDto> getItemsByUserId() {
+        return itemService.getItemsByUserId(ownerId, 0, items);
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ItemServiceImpl#addItem} as the users table grows, against the same write with the check
+ * that the owner exists done as it was before, by reading every user. Runs against the in-memory H2 database
+ * of the {@code ci} profile with the entity cache off, as the old check predates it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemWriteBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private ItemServiceImpl itemService;
+    private UserRepository userRepository;
+    private ItemRepository itemRepository;
+
+    private Long ownerId;
+    private final ItemDto itemDto = new ItemDto(null, "Дрель", "Аккумуляторная дрель", true, null);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Persistence.class)
+                .profiles("ci")
+                .web(WebApplicationType.NONE)
+                .run("--shareit.entity-cache.enabled=false", "--logging.level.root=warn");
+        itemService = context.getBean(ItemServiceImpl.class);
+        userRepository = context.getBean(UserRepository.class);
+        itemRepository = context.getBean(ItemRepository.class);
+
+        // ids far above the users sequence, which the owner is saved with
+        context.getBean(JdbcTemplate.class).update("insert into users (id, name, email) " +
+                "select 1000000000 + x, 'user' || x, 'user' || x || '@example.com' from system_range(1, ?)", users - 1);
+        ownerId = userRepository.save(new User(null, "owner", "owner@example.com")).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ItemDto current() {
+        return itemService.addItem(itemDto, ownerId);
+    }
+
+    @Benchmark
+    public ItemDto baseline() {
+        if (userRepository.findAll().stream().noneMatch(user -> ownerId.equals(user.getId()))) {
+            throw new UserNotFoundException("Пользователь под номером " + ownerId + " не найден.");
+        }
+
+        Item item = ItemMapper.toItem(itemDto);
+        item.setOwner(ownerId);
+
+        return ItemMapper.toItemDto(itemRepository.save(item));
+    }
+
+    /**
+     * The persistence layer and the item service only, see {@link BookingIndexBenchmark.Persistence}.
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = ShareItServer.class)
+    @EnableJpaRepositories(basePackageClasses = ShareItServer.class)
+    @Import(ItemServiceImpl.class)
+    static class Persistence {
+    }
+}
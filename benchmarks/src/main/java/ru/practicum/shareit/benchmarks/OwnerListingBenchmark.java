@@ -0,0 +1,197 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the owner's item listing of {@link ItemServiceImpl#getItemsByUserId} with the listing it replaced,
+ * which scanned the owner's bookings twice and the comments once for every item of the page. Both run
+ * against the in-memory H2 database of the {@code ci} profile, seeded with one owner of 10 000 items,
+ * 100 000 approved bookings and a comment per item.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OwnerListingBenchmark {
+
+    private static final int ITEMS = 10_000;
+    private static final int BOOKINGS_PER_ITEM = 10;
+
+    @Param({"100", "10000"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private ItemServiceImpl itemService;
+    private ItemRepository itemRepository;
+    private CommentRepository commentRepository;
+    private BookingRepository bookingRepository;
+
+    private Long ownerId;
+    private Long firstItemId;
+    private Long lastItemId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Persistence.class)
+                .profiles("ci")
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.root=warn");
+        itemService = context.getBean(ItemServiceImpl.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        commentRepository = context.getBean(CommentRepository.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+
+        seed(context.getBean(UserRepository.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDto> current() {
+        return itemService.getItemsByUserId(ownerId, 0, pageSize);
+    }
+
+    /**
+     * The listing as it was before the change, down to reading every comment of the owner and paging
+     * the bookings with the page of items.
+     */
+    @Benchmark
+    public List<ItemDto> baseline() {
+
+        List<Item> items = itemRepository.findAllByOwner(ownerId, PageRequest.of(0, pageSize, Sort.by("id")));
+        List<Comment> comments = commentRepository.findAllByItem_OwnerAndItem_IdBetween(
+                ownerId, firstItemId, lastItemId);
+        List<Booking> bookings = bookingRepository.findAllByItem_OwnerAndState(
+                ownerId, Status.APPROVED, PageRequest.of(0, pageSize));
+
+        List<ItemDto> itemDtos = new ArrayList<>();
+
+        for (Item item : items) {
+
+            Booking lastBooking = bookings.stream()
+                    .filter(b -> b.getItem().equals(item))
+                    .filter(b -> b.getEnd().isBefore(LocalDateTime.now())).max(Comparator.comparing(Booking::getEnd))
+                    .orElse(null);
+
+            Booking nextBooking = bookings.stream()
+                    .filter(b -> b.getItem().equals(item))
+                    .filter(b -> b.getStart().isAfter(LocalDateTime.now())).min(Comparator.comparing(Booking::getStart))
+                    .orElse(null);
+
+            ItemDto itemDto = ItemMapper.toItemDto(item);
+
+            if (lastBooking != null) {
+                itemDto.setLastBooking(new ItemDto.Booking(lastBooking.getId(), lastBooking.getBooker().getId()));
+            }
+            if (nextBooking != null) {
+                itemDto.setNextBooking(new ItemDto.Booking(nextBooking.getId(), nextBooking.getBooker().getId()));
+            }
+            if (!comments.isEmpty()) {
+                itemDto.setComments(comments.stream()
+                        .filter(c -> c.getItem().getId().equals(item.getId()))
+                        .map(CommentMapper::toItemComment)
+                        .collect(Collectors.toList()));
+            }
+
+            itemDtos.add(itemDto);
+        }
+        return itemDtos;
+    }
+
+    /**
+     * Every item gets {@code BOOKINGS_PER_ITEM} approved bookings a week apart, half of them in the past,
+     * and a comment by the booker.
+     */
+    private void seed(UserRepository userRepository) {
+
+        User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+        User booker = userRepository.save(new User(null, "booker", "booker@example.com"));
+        ownerId = owner.getId();
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        Random random = new Random(42);
+        for (int first = 0; first < ITEMS; first += 1000) {
+            List<Item> items = new ArrayList<>(1000);
+            for (int i = first; i < first + 1000; i++) {
+                Item item = new Item(null, "item" + i, "description" + i, true);
+                item.setOwner(ownerId);
+                items.add(item);
+            }
+            items = itemRepository.saveAll(items);
+            if (firstItemId == null) {
+                firstItemId = items.get(0).getId();
+            }
+            lastItemId = items.get(items.size() - 1).getId();
+
+            List<Booking> bookings = new ArrayList<>(1000 * BOOKINGS_PER_ITEM);
+            List<Comment> comments = new ArrayList<>(1000);
+            for (Item item : items) {
+                for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                    LocalDateTime start = now.plusDays(7L * (j - BOOKINGS_PER_ITEM / 2)).plusHours(random.nextInt(24));
+                    Booking booking = new Booking(null, start, start.plusDays(1 + random.nextInt(3)));
+                    booking.setItem(item);
+                    booking.setBooker(booker);
+                    booking.setStatus(Status.APPROVED);
+                    bookings.add(booking);
+                }
+                Comment comment = new Comment();
+                comment.setText("comment on " + item.getName());
+                comment.setItem(item);
+                comment.setAuthor(booker);
+                comment.setCreated(now);
+                comments.add(comment);
+            }
+            bookingRepository.saveAll(bookings);
+            commentRepository.saveAll(comments);
+        }
+    }
+
+    /**
+     * The persistence layer and the item service only, see {@link BookingIndexBenchmark.Persistence}.
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = ShareItServer.class)
+    @EnableJpaRepositories(basePackageClasses = ShareItServer.class)
+    @Import(ItemServiceImpl.class)
+    static class Persistence {
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds in-memory implementations of Spring Data repository interfaces. Only the methods registered
+ * by name are implemented; any other call fails, so a benchmark cannot silently measure an unexpected path.
+ */
+public class RepositoryStubs<R> {
+
+    private final Class<R> repositoryType;
+    private final Map<String, Function<Object[], Object>> methods = new HashMap<>();
+
+    private RepositoryStubs(Class<R> repositoryType) {
+        this.repositoryType = repositoryType;
+    }
+
+    public static <R> RepositoryStubs<R> of(Class<R> repositoryType) {
+        return new RepositoryStubs<>(repositoryType);
+    }
+
+    public RepositoryStubs<R> on(String methodName, Function<Object[], Object> implementation) {
+        methods.put(methodName, implementation);
+        return this;
+    }
+
+    public R build() {
+        Map<String, Function<Object[], Object>> implementations = Map.copyOf(methods);
+
+        Object stub = Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                return repositoryType.getSimpleName() + " stub";
+                        }
+                    }
+                    Function<Object[], Object> implementation = implementations.get(method.getName());
+                    if (implementation == null) {
+                        throw new UnsupportedOperationException(
+                                repositoryType.getSimpleName() + "." + method.getName() + " is not stubbed");
+                    }
+                    return implementation.apply(args);
+                });
+        return repositoryType.cast(stub);
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.benchmarks;
+
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingShort;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded generators of entity graphs. The same seed and sizes always produce the same data,
+ * so results of different runs are comparable.
+ */
+public class SyntheticData {
+
+    public static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final Random random;
+    private long nextId = 1;
+
+    public SyntheticData(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = nextId++;
+            users.add(new User(id, "user" + id, "user" + id + "@example.com"));
+        }
+        return users;
+    }
+
+    public List<ItemRequest> requests(int count, List<User> requesters) {
+        List<ItemRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(new ItemRequest(nextId++, text(8), pick(requesters), NOW.minusHours(i)));
+        }
+        return requests;
+    }
+
+    /**
+     * Creates items owned by {@code owner}. Each item gets one of the {@code requests}, if the list is not empty.
+     */
+    public List<Item> items(int count, Long owner, List<ItemRequest> requests) {
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ItemRequest request = requests.isEmpty() ? null : requests.get(i % requests.size());
+            items.add(new Item(nextId++, text(2), text(12), random.nextBoolean(), owner, request));
+        }
+        return items;
+    }
+
+    public List<Comment> comments(List<Item> items, int perItem, List<User> authors) {
+        List<Comment> comments = new ArrayList<>(items.size() * perItem);
+        for (Item item : items) {
+            for (int i = 0; i < perItem; i++) {
+                Comment comment = new Comment();
+                comment.setId(nextId++);
+                comment.setText(text(10));
+                comment.setItem(item);
+                comment.setAuthor(pick(authors));
+                comment.setCreated(NOW.minusDays(random.nextInt(365)));
+                comments.add(comment);
+            }
+        }
+        return comments;
+    }
+
+    public List<Booking> bookings(int count, List<Item> items, List<User> bookers) {
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = NOW.plusHours(random.nextInt(24 * 365) - 24 * 180);
+            Booking booking = new Booking(nextId++, start, start.plusHours(1 + random.nextInt(72)));
+            booking.setItem(pick(items));
+            booking.setBooker(pick(bookers));
+            booking.setStatus(Status.values()[random.nextInt(Status.values().length)]);
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    /**
+     * One last and one next booking per item, as returned by the database query.
+     */
+    public List<BookingShort> lastAndNextBookings(List<Item> items, List<User> bookers) {
+        List<BookingShort> bookings = new ArrayList<>(items.size() * 2);
+        for (Item item : items) {
+            bookings.add(new LastOrNext(item.getId(), nextId++, pick(bookers).getId(), true));
+            bookings.add(new LastOrNext(item.getId(), nextId++, pick(bookers).getId(), false));
+        }
+        return bookings;
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private String text(int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            int length = 3 + random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        return text.toString();
+    }
+
+    private static class LastOrNext implements BookingShort {
+
+        private final Long itemId;
+        private final Long id;
+        private final Long bookerId;
+        private final Boolean isLast;
+
+        private LastOrNext(Long itemId, Long id, Long bookerId, Boolean isLast) {
+            this.itemId = itemId;
+            this.id = id;
+            this.bookerId = bookerId;
+            this.isLast = isLast;
+        }
+
+        @Override
+        public Long getItemId() {
+            return itemId;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getBookerId() {
+            return bookerId;
+        }
+
+        @Override
+        public Boolean getIsLast() {
+            return isLast;
+        }
+    }
+}
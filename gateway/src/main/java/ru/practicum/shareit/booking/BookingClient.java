@@ -3,14 +3,20 @@ package ru.practicum.shareit.booking;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.CacheConfig;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -19,19 +25,39 @@ public class BookingClient extends BaseClient {
     private static final String STATE = "state";
     private static final String FROM = "from";
     private static final String SIZE = "size";
+    private static final String AFTER = "after";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         HttpComponentsClientHttpRequestFactory requestFactory,
+                         CacheManager cacheManager) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                cacheManager
         );
     }
 
+    /**
+     * A new booking can become the last or next booking on the page of its item. Approvals do not change
+     * which bookings the page shows, so they evict nothing.
+     */
     public ResponseEntity<Object> createBooking(Long userId, BookingDto requestDto) {
-        return post("", userId, requestDto);
+        return evict(post("", userId, requestDto), CacheConfig.ITEMS, CacheConfig.item(requestDto.getItemId()));
+    }
+
+    public ResponseEntity<Object> createBookings(Long userId, List<BookingDto> bookingDtos) {
+        String[] items = bookingDtos.stream()
+                .map(bookingDto -> CacheConfig.item(bookingDto.getItemId()))
+                .distinct()
+                .toArray(String[]::new);
+        return evict(post("/batch", userId, bookingDtos), CacheConfig.ITEMS, items);
+    }
+
+    public ResponseEntity<Object> setApprovals(Long userId, List<BookingApprovalDto> approvals) {
+        return patch("/batch", userId, approvals);
     }
 
     public ResponseEntity<Object> setApproval(Boolean approved, Long bookingId, Long userId) {
@@ -42,7 +68,24 @@ public class BookingClient extends BaseClient {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> findBookingsOfUser(Long userId, BookingState state, Integer from, Integer size) {
+    public ResponseEntity<StreamingResponseBody> exportBookingsOfUser(Long userId) {
+        return stream("/export", userId);
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportBookingsOfOwner(Long userId) {
+        return stream("/owner/export", userId);
+    }
+
+    public ResponseEntity<Object> findBookingsOfUser(Long userId, BookingState state, Integer from, Integer size,
+                                                     @Nullable String after) {
+        if (after != null) {
+            Map<String, Object> parameters = Map.of(
+                    STATE, state.name(),
+                    SIZE, size,
+                    AFTER, after
+            );
+            return get("?state={state}&size={size}&after={after}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 STATE, state.name(),
                 FROM, from,
@@ -51,7 +94,16 @@ public class BookingClient extends BaseClient {
         return get("?state={state}&from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> findBookingsOfOwner(Long userId, BookingState state, Integer from, Integer size) {
+    public ResponseEntity<Object> findBookingsOfOwner(Long userId, BookingState state, Integer from, Integer size,
+                                                      @Nullable String after) {
+        if (after != null) {
+            Map<String, Object> parameters = Map.of(
+                    STATE, state.name(),
+                    SIZE, size,
+                    AFTER, after
+            );
+            return get("/owner?state={state}&size={size}&after={after}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 STATE, state.name(),
                 FROM, from,
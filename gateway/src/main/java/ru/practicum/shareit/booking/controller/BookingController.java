@@ -6,7 +6,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.BookingClient;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
@@ -29,6 +32,20 @@ public class BookingController {
         return bookingClient.createBooking(userId, bookingDto);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createBookings(@RequestHeader(USER_ID) Long userId,
+                                                 @RequestBody @Valid BookingBatchDto<BookingDto> bookingDtos) {
+        log.info("Creating {} bookings, userId={}", bookingDtos.getEntries().size(), userId);
+        return bookingClient.createBookings(userId, bookingDtos.getEntries());
+    }
+
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> setApprovals(@RequestHeader(USER_ID) Long userId,
+                                               @RequestBody @Valid BookingBatchDto<BookingApprovalDto> approvals) {
+        log.info("Setting approval of {} bookings, userId={}", approvals.getEntries().size(), userId);
+        return bookingClient.setApprovals(userId, approvals.getEntries());
+    }
+
     @PatchMapping("/{bookingId}")
     public ResponseEntity<Object> setApproval(@RequestParam Boolean approved,
                                               @PathVariable Long bookingId,
@@ -43,27 +60,41 @@ public class BookingController {
         return bookingClient.findBookingById(userId, bookingId);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsOfUser(@RequestHeader(USER_ID) Long userId) {
+        log.info("Export bookings, userId={}", userId);
+        return bookingClient.exportBookingsOfUser(userId);
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsOfOwner(@RequestHeader(USER_ID) Long userId) {
+        log.info("Export bookings of owner, userId={}", userId);
+        return bookingClient.exportBookingsOfOwner(userId);
+    }
+
     @GetMapping
     public ResponseEntity<Object> findBookingsOfUser(@RequestHeader(USER_ID) Long userId,
                                                      @RequestParam(name = "state", defaultValue = "all") String stateParam,
                                                      @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                     @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                                     @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                     @RequestParam(name = "after", required = false) String after) {
 
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.findBookingsOfUser(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, after={}", stateParam, userId, from, size, after);
+        return bookingClient.findBookingsOfUser(userId, state, from, size, after);
     }
 
     @GetMapping("/owner")
     public ResponseEntity<Object> findBookingsOfOwner(@RequestHeader(USER_ID) Long userId,
                                                       @RequestParam(name = "state", defaultValue = "all") String stateParam,
                                                       @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                      @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                                      @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                      @RequestParam(name = "after", required = false) String after) {
 
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.findBookingsOfOwner(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, after={}", stateParam, userId, from, size, after);
+        return bookingClient.findBookingsOfOwner(userId, state, from, size, after);
     }
 }
\ No newline at end of file
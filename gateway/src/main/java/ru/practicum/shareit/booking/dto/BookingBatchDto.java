@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * Body of the batch endpoints. Reads a plain JSON array and validates it as a request body,
+ * so that an empty batch or an invalid entry is answered with 400 like any other invalid body.
+ */
+@Data
+public class BookingBatchDto<T> {
+
+    @NotEmpty(message = "Пакет не может быть пустым.")
+    @Valid
+    private final List<T> entries;
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public BookingBatchDto(List<T> entries) {
+        this.entries = entries;
+    }
+}
@@ -1,19 +1,48 @@
 package ru.practicum.shareit.client;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 public class BaseClient {
     protected final RestTemplate rest;
     private static final String USER_ID = "X-Sharer-User-Id";
+    private static final String REQUEST_TIMER = "shareit.gateway.requests";
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    @Nullable
+    private final CacheManager cacheManager;
+    private final String basePath;
 
     public BaseClient(RestTemplate rest) {
+        this(rest, null);
+    }
+
+    /**
+     * Creates a client that can keep GET responses in the caches of the given manager, see {@link #cachedGet}.
+     */
+    public BaseClient(RestTemplate rest, @Nullable CacheManager cacheManager) {
         this.rest = rest;
+        this.basePath = rest.getUriTemplateHandler().expand("").getPath();
+        this.cacheManager = cacheManager;
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -28,6 +57,37 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    /**
+     * Same as {@link #get(String, Long, Map)}, but successful responses are kept in the named cache
+     * under the expanded request URI and user id. The scope names what the response shows, e.g. one item
+     * ({@link CacheConfig#item}), so that {@link #evict} can drop it when that changes.
+     */
+    protected ResponseEntity<Object> cachedGet(String cacheName, String scope, String path, Long userId,
+                                               @Nullable Map<String, Object> parameters) {
+        Cache cache = cacheManager != null ? cacheManager.getCache(cacheName) : null;
+        if (cache == null) {
+            return get(path, userId, parameters);
+        }
+
+        String uri = parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters).toString()
+                : rest.getUriTemplateHandler().expand(path).toString();
+        ResponseCacheKey key = new ResponseCacheKey(scope, uri, userId);
+
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            @SuppressWarnings("unchecked")
+            ResponseEntity<Object> response = (ResponseEntity<Object>) cached.get();
+            return response;
+        }
+
+        ResponseEntity<Object> response = get(path, userId, parameters);
+        if (response.getStatusCode().is2xxSuccessful()) {
+            cache.put(key, response);
+        }
+        return response;
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -56,6 +116,65 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
+    /**
+     * Sends a GET request and passes the server's response body through as it arrives, without buffering it.
+     * Error responses keep the server's status and are streamed the same way.
+     */
+    protected ResponseEntity<StreamingResponseBody> stream(String path, Long userId) {
+        URI uri = rest.getUriTemplateHandler().expand(path);
+
+        ClientHttpResponse response = null;
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            request.getHeaders().putAll(defaultHeaders(userId));
+            request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON));
+            response = request.execute();
+
+            ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getRawStatusCode());
+            if (response.getHeaders().getContentType() != null) {
+                responseBuilder.contentType(response.getHeaders().getContentType());
+            }
+
+            ClientHttpResponse serverResponse = response;
+            return responseBuilder.body(out -> {
+                try (serverResponse) {
+                    StreamUtils.copy(serverResponse.getBody(), out);
+                }
+            });
+        } catch (IOException e) {
+            if (response != null) {
+                response.close();
+            }
+            throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sends the body to the server as it is read, without buffering it, and returns the server's response.
+     */
+    protected ResponseEntity<Object> upload(ClientHttpRequestFactory requestFactory, String path, Long userId,
+                                            MediaType contentType, InputStream body) {
+        URI uri = rest.getUriTemplateHandler().expand(path);
+
+        try {
+            ClientHttpRequest request = requestFactory.createRequest(uri, HttpMethod.POST);
+            request.getHeaders().putAll(defaultHeaders(userId));
+            request.getHeaders().setContentType(contentType);
+            if (request instanceof StreamingHttpOutputMessage) {
+                ((StreamingHttpOutputMessage) request).setBody(out -> StreamUtils.copy(body, out));
+            } else {
+                StreamUtils.copy(body, request.getBody());
+            }
+
+            try (ClientHttpResponse response = request.execute()) {
+                byte[] responseBody = StreamUtils.copyToByteArray(response.getBody());
+                return prepareGatewayResponse(response.getStatusCode(), response.getHeaders(), responseBody);
+            }
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on POST request for \"" + uri + "\": " + e.getMessage(), e);
+        }
+    }
+
     protected ResponseEntity<Object> delete(String path) {
         return delete(path, null, null);
     }
@@ -64,20 +183,102 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Sends the request and records it in the {@value #REQUEST_TIMER} timer, tagged with the HTTP method,
+     * the path template and the server's status. The timer lives in the global registry, which Spring Boot
+     * backs with the application's registry.
+     */
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+        String status = "IO_ERROR";
+        try {
+            ResponseEntity<Object> response = exchange(method, path, userId, parameters, body);
+            status = String.valueOf(response.getStatusCodeValue());
+            return response;
+        } finally {
+            sample.stop(Timer.builder(REQUEST_TIMER)
+                    .tag("method", method.name())
+                    .tag("uri", uriTemplate(path))
+                    .tag("status", status)
+                    .register(Metrics.globalRegistry));
+        }
+    }
+
+    private <T> ResponseEntity<Object> exchange(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
-        ResponseEntity<Object> shareitServerResponse;
+        ResponseEntity<byte[]> shareitServerResponse;
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
             } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
             }
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return prepareGatewayResponse(e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
+        }
+        return prepareGatewayResponse(shareitServerResponse.getStatusCode(), shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody());
+    }
+
+    /**
+     * Returns the server path without the query, with numeric ids replaced by {@code {id}},
+     * so that the tag does not grow with the number of entities.
+     */
+    private String uriTemplate(String path) {
+        int query = path.indexOf('?');
+        String template = ID_SEGMENT.matcher(query >= 0 ? path.substring(0, query) : path).replaceAll("/{id}");
+        return basePath + template;
+    }
+
+    /**
+     * Drops the responses cached under the given scopes, and under scopes nested in them, if the response
+     * of a change is successful: {@code evict(response, REQUESTS, CacheConfig.REQUEST_LISTS)} drops
+     * the lists of requests of all users, but not single requests.
+     */
+    protected ResponseEntity<Object> evict(ResponseEntity<Object> response, String cacheName, String... scopes) {
+        Cache cache = cacheManager != null ? cacheManager.getCache(cacheName) : null;
+        if (cache == null || !response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+
+        Map<Object, Object> entries = entries(cache);
+        if (entries == null) {
+            cache.clear();
+            return response;
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        entries.keySet().removeIf(key -> key instanceof ResponseCacheKey && ((ResponseCacheKey) key).isIn(scopes));
+        return response;
+    }
+
+    /**
+     * Drops all cached responses of the named caches if the response of a change is successful,
+     * for changes that can show up in any of them.
+     */
+    protected ResponseEntity<Object> clear(ResponseEntity<Object> response, String... cacheNames) {
+        if (cacheManager == null || !response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        for (String cacheName : cacheNames) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        return response;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> entries(Cache cache) {
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache) {
+            return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).asMap();
+        }
+        if (nativeCache instanceof Map) {
+            return (Map<Object, Object>) nativeCache;
+        }
+        return null;
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -90,15 +291,19 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
+    /**
+     * Forwards the server's status, content type and raw body bytes without parsing them.
+     */
+    private static ResponseEntity<Object> prepareGatewayResponse(HttpStatus status, @Nullable HttpHeaders headers,
+                                                                 @Nullable byte[] body) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status);
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        if (headers != null && headers.getContentType() != null) {
+            responseBuilder.contentType(headers.getContentType());
+        }
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        if (body != null && body.length > 0) {
+            return responseBuilder.body(body);
         }
 
         return responseBuilder.build();
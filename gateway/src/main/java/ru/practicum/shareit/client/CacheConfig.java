@@ -0,0 +1,38 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Response caches of the gateway, configured with {@code spring.cache.*} properties, and the scopes
+ * their entries are kept under, see {@link BaseClient#cachedGet} and {@link BaseClient#evict}.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ITEMS = "items";
+    public static final String REQUESTS = "requests";
+
+    /**
+     * Search results, which any new or changed item can change.
+     */
+    public static final String SEARCH = "search";
+    /**
+     * Lists of requests, which show the items answering them: {@link #requestsOf} and {@link #ALL_REQUESTS}.
+     */
+    public static final String REQUEST_LISTS = "lists";
+    public static final String ALL_REQUESTS = REQUEST_LISTS + "/all";
+
+    public static String item(Long itemId) {
+        return "item/" + itemId;
+    }
+
+    public static String request(Long requestId) {
+        return "request/" + requestId;
+    }
+
+    public static String requestsOf(Long userId) {
+        return REQUEST_LISTS + "/user/" + userId;
+    }
+}
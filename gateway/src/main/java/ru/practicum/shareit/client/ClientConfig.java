@@ -0,0 +1,67 @@
+package ru.practicum.shareit.client;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection pool shared by all clients of the ShareIt server.
+ */
+@Configuration
+public class ClientConfig {
+
+    @Bean
+    @Primary
+    public HttpComponentsClientHttpRequestFactory shareItServerRequestFactory(
+            @Value("${shareit-server.pool.max-total}") int maxTotal,
+            @Value("${shareit-server.pool.max-per-route}") int maxPerRoute,
+            @Value("${shareit-server.pool.idle-timeout}") Duration idleTimeout,
+            @Value("${shareit-server.timeout.connect}") Duration connectTimeout,
+            @Value("${shareit-server.timeout.connection-request}") Duration connectionRequestTimeout,
+            @Value("${shareit-server.timeout.read}") Duration readTimeout) {
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setConnectionRequestTimeout((int) connectionRequestTimeout.toMillis())
+                .setSocketTimeout((int) readTimeout.toMillis())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    /**
+     * Uses the same connection pool, but streams request bodies instead of buffering them,
+     * and waits longer for the response, since the server answers uploads only after processing them.
+     */
+    @Bean
+    public HttpComponentsClientHttpRequestFactory shareItServerUploadRequestFactory(
+            HttpComponentsClientHttpRequestFactory shareItServerRequestFactory,
+            @Value("${shareit-server.timeout.upload}") Duration uploadTimeout) {
+
+        HttpComponentsClientHttpRequestFactory requestFactory =
+                new HttpComponentsClientHttpRequestFactory(shareItServerRequestFactory.getHttpClient());
+        requestFactory.setBufferRequestBody(false);
+        requestFactory.setReadTimeout((int) uploadTimeout.toMillis());
+        return requestFactory;
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+
+/**
+ * Key of a cached server response: the expanded request URI and the user it was requested for,
+ * plus the scope of data it shows, which {@link BaseClient#evict} matches.
+ */
+@Data
+class ResponseCacheKey {
+
+    private final String scope;
+    private final String uri;
+    private final Long userId;
+
+    boolean isIn(String... scopes) {
+        for (String other : scopes) {
+            if (scope.equals(other) || scope.startsWith(other + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,16 +1,21 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.CacheConfig;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.InputStream;
 import java.util.Map;
 
 @Service
@@ -21,27 +26,55 @@ public class ItemClient extends BaseClient {
     private static final String FROM = "from";
     private static final String SIZE = "size";
 
+    private final HttpComponentsClientHttpRequestFactory uploadRequestFactory;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      HttpComponentsClientHttpRequestFactory requestFactory,
+                      @Qualifier("shareItServerUploadRequestFactory")
+                      HttpComponentsClientHttpRequestFactory uploadRequestFactory,
+                      CacheManager cacheManager) {
 
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                cacheManager
         );
+        this.uploadRequestFactory = uploadRequestFactory;
     }
 
+    /**
+     * A new item can show up in any search, and an item answering a request in that request and in the lists
+     * of requests, whose owners the gateway does not know.
+     */
     public ResponseEntity<Object> addItem(Long userId, ItemDto itemDto) {
-        return post("", userId, itemDto);
+        ResponseEntity<Object> response = evict(post("", userId, itemDto), CacheConfig.ITEMS, CacheConfig.SEARCH);
+        if (itemDto.getRequestId() != null) {
+            evict(response, CacheConfig.REQUESTS, CacheConfig.request(itemDto.getRequestId()), CacheConfig.REQUEST_LISTS);
+        }
+        return response;
+    }
+
+    public ResponseEntity<Object> importItems(Long userId, MediaType contentType, InputStream body) {
+        ResponseEntity<Object> response = upload(uploadRequestFactory, "/import", userId, contentType, body);
+        evict(response, CacheConfig.ITEMS, CacheConfig.SEARCH);
+        return clear(response, CacheConfig.REQUESTS);
     }
 
+    /**
+     * Besides its page and searches, a changed item shows up in the request it answers, which the update
+     * does not name, so all requests are dropped.
+     */
     public ResponseEntity<Object> updateItem(ItemDto itemDto, Long userId, Long itemId) {
-        return patch("/" + itemId, userId, itemDto);
+        ResponseEntity<Object> response = evict(patch("/" + itemId, userId, itemDto),
+                CacheConfig.ITEMS, CacheConfig.item(itemId), CacheConfig.SEARCH);
+        return clear(response, CacheConfig.REQUESTS);
     }
 
     public ResponseEntity<Object> getItem(Long itemId, Long userId) {
-        return get("/" + itemId, userId);
+        return cachedGet(CacheConfig.ITEMS, CacheConfig.item(itemId), "/" + itemId, userId, null);
     }
 
     public ResponseEntity<Object> getItemsByUserId(Long userId, int from, int size) {
@@ -58,10 +91,10 @@ public class ItemClient extends BaseClient {
                 FROM, from,
                 SIZE, size
         );
-        return get("/search?text={text}&from={from}&size={size}", null, parameters);
+        return cachedGet(CacheConfig.ITEMS, CacheConfig.SEARCH, "/search?text={text}&from={from}&size={size}", null, parameters);
     }
 
     public ResponseEntity<Object> createComment(Long userId, Long itemId, CommentDto commentDto) {
-        return post("/" + itemId + "/comment", userId, commentDto);
+        return evict(post("/" + itemId + "/comment", userId, commentDto), CacheConfig.ITEMS, CacheConfig.item(itemId));
     }
 }
@@ -3,11 +3,13 @@ package ru.practicum.shareit.request;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.CacheConfig;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.Map;
@@ -20,21 +22,28 @@ public class ItemRequestClient extends BaseClient {
     private static final String SIZE = "size";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                             HttpComponentsClientHttpRequestFactory requestFactory,
+                             CacheManager cacheManager) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                cacheManager
         );
     }
 
+    /**
+     * A new request shows up in the requests of its author and in the lists of all other users.
+     */
     public ResponseEntity<Object> createRequest(Long userId, ItemRequestDto itemRequestDto) {
-        return post("", userId, itemRequestDto);
+        return evict(post("", userId, itemRequestDto),
+                CacheConfig.REQUESTS, CacheConfig.requestsOf(userId), CacheConfig.ALL_REQUESTS);
     }
 
     public ResponseEntity<Object> getUserRequests(Long userId) {
-        return get("", userId);
+        return cachedGet(CacheConfig.REQUESTS, CacheConfig.requestsOf(userId), "", userId, null);
     }
 
     public ResponseEntity<Object> getAllRequests(Long userId, int from, int size) {
@@ -42,10 +51,10 @@ public class ItemRequestClient extends BaseClient {
                 FROM, from,
                 SIZE, size
         );
-        return get("/all?from={from}&size={size}", userId, parameters);
+        return cachedGet(CacheConfig.REQUESTS, CacheConfig.ALL_REQUESTS, "/all?from={from}&size={size}", userId, parameters);
     }
 
     public ResponseEntity<Object> getRequest(Long userId, Long requestId) {
-        return get("/" + requestId, userId);
+        return cachedGet(CacheConfig.REQUESTS, CacheConfig.request(requestId), "/" + requestId, userId, null);
     }
 }
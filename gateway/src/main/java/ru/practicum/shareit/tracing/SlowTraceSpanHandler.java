@@ -0,0 +1,103 @@
+package ru.practicum.shareit.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Tail sampling to the log: spans are held until the local root span (usually the incoming HTTP request)
+ * finishes, and the whole tree is logged only if the root took at least {@code shareit.tracing.slow-threshold}.
+ * Spans that finish after their root, e.g. in other threads, are dropped.
+ * <p>
+ * At most {@code shareit.tracing.max-buffered-traces} traces are held. A trace whose root has not finished
+ * within {@code shareit.tracing.max-trace-age} (by default the async request timeout) is dropped as well.
+ */
+@Slf4j
+@Component
+public class SlowTraceSpanHandler extends SpanHandler {
+
+    private final long thresholdMicros;
+    private final Cache<Long, List<MutableSpan>> traces;
+
+    public SlowTraceSpanHandler(@Value("${shareit.tracing.slow-threshold}") Duration threshold,
+                                @Value("${shareit.tracing.max-buffered-traces}") int maxBufferedTraces,
+                                @Value("${shareit.tracing.max-trace-age}") Duration maxTraceAge) {
+        this.thresholdMicros = threshold.toNanos() / 1000;
+        this.traces = Caffeine.newBuilder()
+                .maximumSize(maxBufferedTraces)
+                .expireAfterWrite(maxTraceAge)
+                .build();
+    }
+
+    @Override
+    public boolean begin(TraceContext context, MutableSpan span, TraceContext parent) {
+        if (context.isLocalRoot()) {
+            traces.put(context.localRootId(), Collections.synchronizedList(new ArrayList<>()));
+        }
+        return true;
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+
+        if (!context.isLocalRoot()) {
+            List<MutableSpan> spans = traces.getIfPresent(context.localRootId());
+            if (cause == Cause.FINISHED && spans != null) {
+                spans.add(new MutableSpan(span));
+            }
+            return true;
+        }
+
+        List<MutableSpan> children = traces.asMap().remove(context.localRootId());
+        if (cause == Cause.FINISHED && span.finishTimestamp() - span.startTimestamp() >= thresholdMicros) {
+            log.warn(format(context, span, children != null ? children : List.of()));
+        }
+        return true;
+    }
+
+    long bufferedTraces() {
+        traces.cleanUp();
+        return traces.estimatedSize();
+    }
+
+    private static String format(TraceContext context, MutableSpan root, List<MutableSpan> children) {
+
+        List<MutableSpan> spans = new ArrayList<>(children.size() + 1);
+        spans.add(root);
+        synchronized (children) {
+            spans.addAll(children);
+        }
+        spans.sort(Comparator.comparingLong(MutableSpan::startTimestamp));
+
+        StringBuilder message = new StringBuilder()
+                .append("Slow trace ").append(context.traceIdString())
+                .append(": ").append(root.name())
+                .append(" took ").append(millis(root.finishTimestamp() - root.startTimestamp())).append(" ms");
+        for (MutableSpan span : spans) {
+            message.append(System.lineSeparator())
+                    .append(String.format("  +%8.1f ms %8.1f ms  %-6s %s",
+                            millis(span.startTimestamp() - root.startTimestamp()),
+                            millis(span.finishTimestamp() - span.startTimestamp()),
+                            span.kind() != null ? span.kind() : "LOCAL",
+                            span.name()));
+            span.forEachTag((builder, key, value) -> builder.append(' ').append(key).append('=').append(value),
+                    message);
+            if (span.error() != null) {
+                message.append(" error=").append(span.error());
+            }
+        }
+        return message.toString();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
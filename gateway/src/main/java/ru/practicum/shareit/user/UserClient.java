@@ -3,11 +3,13 @@ package ru.practicum.shareit.user;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.CacheConfig;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
 
@@ -17,12 +19,15 @@ public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      HttpComponentsClientHttpRequestFactory requestFactory,
+                      CacheManager cacheManager) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                cacheManager
         );
     }
 
@@ -30,8 +35,11 @@ public class UserClient extends BaseClient {
         return post("", userDto);
     }
 
+    /**
+     * Item pages show the names of comment authors, so a renamed user can show up in any of them.
+     */
     public ResponseEntity<Object> updateUser(Long userId, UserUpdateDto userUpdateDto) {
-        return patch("/" + userId, userUpdateDto);
+        return clear(patch("/" + userId, userUpdateDto), CacheConfig.ITEMS);
     }
 
     public ResponseEntity<Object> getUser(Long userId) {
@@ -42,7 +50,10 @@ public class UserClient extends BaseClient {
         return get("");
     }
 
+    /**
+     * Deleting a user deletes their items, requests and comments as well.
+     */
     public ResponseEntity<Object> deleteUser(Long userId) {
-        return delete("/" + userId);
+        return clear(delete("/" + userId), CacheConfig.ITEMS, CacheConfig.REQUESTS);
     }
 }
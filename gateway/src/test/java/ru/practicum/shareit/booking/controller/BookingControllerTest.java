@@ -0,0 +1,117 @@
+package ru.practicum.shareit.booking.controller;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.BookingClient;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BookingController.class)
+class BookingControllerTest {
+
+    private static final String USER_ID = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private BookingClient bookingClient;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+    @Test
+    void createBookingsPassesBatchToServer() throws Exception {
+        when(bookingClient.createBookings(eq(1L), anyList())).thenReturn(ResponseEntity.ok().build());
+
+        perform(post("/bookings/batch"), "[" + booking(start, start.plusDays(1)) + "]")
+                .andExpect(status().isOk());
+
+        List<BookingDto> bookingDtos = captureCreated();
+        assertThat(bookingDtos).hasSize(1);
+        assertThat(bookingDtos.get(0).getItemId()).isEqualTo(7L);
+    }
+
+    @Test
+    void createBookingsWithEmptyBatchIsBadRequest() throws Exception {
+        perform(post("/bookings/batch"), "[]").andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingClient);
+    }
+
+    @Test
+    void createBookingsWithInvalidEntryIsBadRequest() throws Exception {
+        perform(post("/bookings/batch"), "[" + booking(start, start.plusDays(1)) + ", " + booking(start, null) + "]")
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingClient);
+    }
+
+    @Test
+    void setApprovalsPassesBatchToServer() throws Exception {
+        when(bookingClient.setApprovals(eq(1L), anyList())).thenReturn(ResponseEntity.ok().build());
+
+        perform(patch("/bookings/batch"), "[{\"bookingId\": 3, \"approved\": true}]")
+                .andExpect(status().isOk());
+
+        verify(bookingClient).setApprovals(1L, List.of(approval(3L, true)));
+    }
+
+    @Test
+    void setApprovalsWithEmptyBatchIsBadRequest() throws Exception {
+        perform(patch("/bookings/batch"), "[]").andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingClient);
+    }
+
+    @Test
+    void setApprovalsWithInvalidEntryIsBadRequest() throws Exception {
+        perform(patch("/bookings/batch"), "[{\"bookingId\": 3, \"approved\": true}, {\"bookingId\": 4}]")
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingClient);
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request, String body) throws Exception {
+        return mvc.perform(request
+                .header(USER_ID, 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<BookingDto> captureCreated() {
+        ArgumentCaptor<List<BookingDto>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bookingClient).createBookings(eq(1L), captor.capture());
+        return captor.getValue();
+    }
+
+    private String booking(LocalDateTime start, LocalDateTime end) {
+        return "{\"itemId\": 7, \"start\": " + quoted(start) + ", \"end\": " + quoted(end) + "}";
+    }
+
+    private String quoted(LocalDateTime time) {
+        return time == null ? "null" : "\"" + time + "\"";
+    }
+
+    private BookingApprovalDto approval(Long bookingId, Boolean approved) {
+        BookingApprovalDto approval = new BookingApprovalDto();
+        approval.setBookingId(bookingId);
+        approval.setApproved(approved);
+        return approval;
+    }
+}
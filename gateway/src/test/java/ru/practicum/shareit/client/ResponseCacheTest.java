@@ -0,0 +1,253 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import ru.practicum.shareit.booking.BookingClient;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.ItemClient;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.ItemRequestClient;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.UserClient;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withBadRequest;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Which responses the clients cache under which key, and which of them a change evicts.
+ * Each client talks to its own mock server, which fails on requests it does not expect.
+ */
+class ResponseCacheTest {
+
+    private static final String SERVER = "http://shareit-server";
+    private static final String USER_ID = "X-Sharer-User-Id";
+
+    private ItemClient itemClient;
+    private BookingClient bookingClient;
+    private ItemRequestClient requestClient;
+    private UserClient userClient;
+
+    private MockRestServiceServer itemServer;
+    private MockRestServiceServer bookingServer;
+    private MockRestServiceServer requestServer;
+    private MockRestServiceServer userServer;
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(CacheConfig.ITEMS, CacheConfig.REQUESTS);
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
+
+        itemClient = new ItemClient(SERVER, new RestTemplateBuilder(), requestFactory, requestFactory, cacheManager);
+        bookingClient = new BookingClient(SERVER, new RestTemplateBuilder(), requestFactory, cacheManager);
+        requestClient = new ItemRequestClient(SERVER, new RestTemplateBuilder(), requestFactory, cacheManager);
+        userClient = new UserClient(SERVER, new RestTemplateBuilder(), requestFactory, cacheManager);
+
+        itemServer = MockRestServiceServer.bindTo(itemClient.rest).ignoreExpectOrder(true).build();
+        bookingServer = MockRestServiceServer.bindTo(bookingClient.rest).build();
+        requestServer = MockRestServiceServer.bindTo(requestClient.rest).ignoreExpectOrder(true).build();
+        userServer = MockRestServiceServer.bindTo(userClient.rest).build();
+    }
+
+    @Test
+    void itemIsCachedPerUser() {
+        expectGetItem(1L, 1L, ExpectedCount.once());
+        expectGetItem(1L, 2L, ExpectedCount.once());
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(itemClient.getItem(1L, 1L).getStatusCodeValue()).isEqualTo(200);
+            assertThat(itemClient.getItem(1L, 2L).getStatusCodeValue()).isEqualTo(200);
+        }
+
+        itemServer.verify();
+    }
+
+    @Test
+    void searchIsCachedPerQuery() {
+        expectSearch("drill", ExpectedCount.once());
+        expectSearch("saw", ExpectedCount.once());
+
+        itemClient.searchItems("drill", 0, 10);
+        itemClient.searchItems("saw", 0, 10);
+        itemClient.searchItems("drill", 0, 10);
+        itemClient.searchItems("saw", 0, 10);
+
+        itemServer.verify();
+    }
+
+    @Test
+    void commentEvictsOnlyItsItem() {
+        expectGetItem(1L, 1L, ExpectedCount.twice());
+        expectGetItem(2L, 1L, ExpectedCount.once());
+        expectSearch("drill", ExpectedCount.once());
+        itemServer.expect(requestTo(SERVER + "/items/1/comment"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        cacheItemsAndSearch();
+        itemClient.createComment(1L, 1L, new CommentDto(null, "Отличная дрель", null, LocalDateTime.now()));
+        cacheItemsAndSearch();
+
+        itemServer.verify();
+    }
+
+    @Test
+    void failedChangeEvictsNothing() {
+        expectGetItem(1L, 1L, ExpectedCount.once());
+        expectGetItem(2L, 1L, ExpectedCount.once());
+        expectSearch("drill", ExpectedCount.once());
+        itemServer.expect(requestTo(SERVER + "/items/1/comment")).andRespond(withBadRequest());
+
+        cacheItemsAndSearch();
+        itemClient.createComment(1L, 1L, new CommentDto(null, "Отличная дрель", null, LocalDateTime.now()));
+        cacheItemsAndSearch();
+
+        itemServer.verify();
+    }
+
+    @Test
+    void updateEvictsItemAndSearch() {
+        expectGetItem(1L, 1L, ExpectedCount.twice());
+        expectGetItem(2L, 1L, ExpectedCount.once());
+        expectSearch("drill", ExpectedCount.twice());
+        itemServer.expect(requestTo(SERVER + "/items/1"))
+                .andExpect(method(HttpMethod.PATCH))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        cacheItemsAndSearch();
+        itemClient.updateItem(new ItemDto(), 1L, 1L);
+        cacheItemsAndSearch();
+
+        itemServer.verify();
+    }
+
+    @Test
+    void newItemEvictsSearchAndItsRequest() {
+        expectGetItem(1L, 1L, ExpectedCount.once());
+        expectGetItem(2L, 1L, ExpectedCount.once());
+        expectSearch("drill", ExpectedCount.twice());
+        itemServer.expect(requestTo(SERVER + "/items"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        expectGetRequest(7L, ExpectedCount.twice());
+        expectGetRequest(8L, ExpectedCount.once());
+
+        cacheItemsAndSearch();
+        cacheRequests();
+        ItemDto itemDto = new ItemDto();
+        itemDto.setRequestId(7L);
+        itemClient.addItem(1L, itemDto);
+        cacheItemsAndSearch();
+        cacheRequests();
+
+        itemServer.verify();
+        requestServer.verify();
+    }
+
+    @Test
+    void bookingEvictsOnlyItsItemAndApprovalNothing() {
+        expectGetItem(1L, 1L, ExpectedCount.twice());
+        expectGetItem(2L, 1L, ExpectedCount.once());
+        expectSearch("drill", ExpectedCount.once());
+        bookingServer.expect(requestTo(SERVER + "/bookings"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        bookingServer.expect(requestTo(SERVER + "/bookings/batch"))
+                .andExpect(method(HttpMethod.PATCH))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+        cacheItemsAndSearch();
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(1L);
+        bookingClient.createBooking(3L, bookingDto);
+        BookingApprovalDto approval = new BookingApprovalDto();
+        approval.setBookingId(5L);
+        approval.setApproved(true);
+        bookingClient.setApprovals(1L, List.of(approval));
+        cacheItemsAndSearch();
+
+        itemServer.verify();
+        bookingServer.verify();
+    }
+
+    @Test
+    void newRequestEvictsListsButNotRequests() {
+        requestServer.expect(ExpectedCount.twice(), requestTo(SERVER + "/requests")).andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+        requestServer.expect(ExpectedCount.twice(), requestTo(SERVER + "/requests/all?from=0&size=10"))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+        expectGetRequest(7L, ExpectedCount.once());
+        expectGetRequest(8L, ExpectedCount.once());
+        requestServer.expect(requestTo(SERVER + "/requests")).andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        cacheRequests();
+        requestClient.getUserRequests(1L);
+        requestClient.getAllRequests(2L, 0, 10);
+        requestClient.createRequest(1L, new ItemRequestDto(null, "Нужна дрель", null, null));
+        cacheRequests();
+        requestClient.getUserRequests(1L);
+        requestClient.getAllRequests(2L, 0, 10);
+
+        requestServer.verify();
+    }
+
+    @Test
+    void newUserEvictsNothing() {
+        expectGetItem(1L, 1L, ExpectedCount.once());
+        expectGetItem(2L, 1L, ExpectedCount.once());
+        expectSearch("drill", ExpectedCount.once());
+        userServer.expect(requestTo(SERVER + "/users"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        cacheItemsAndSearch();
+        userClient.addUser(new UserDto(null, "user", "user@mail.ru"));
+        cacheItemsAndSearch();
+
+        itemServer.verify();
+        userServer.verify();
+    }
+
+    private void cacheItemsAndSearch() {
+        itemClient.getItem(1L, 1L);
+        itemClient.getItem(2L, 1L);
+        itemClient.searchItems("drill", 0, 10);
+    }
+
+    private void cacheRequests() {
+        requestClient.getRequest(1L, 7L);
+        requestClient.getRequest(1L, 8L);
+    }
+
+    private void expectGetItem(Long itemId, Long userId, ExpectedCount count) {
+        itemServer.expect(count, requestTo(SERVER + "/items/" + itemId))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header(USER_ID, userId.toString()))
+                .andRespond(withSuccess("{\"id\":" + itemId + "}", MediaType.APPLICATION_JSON));
+    }
+
+    private void expectSearch(String text, ExpectedCount count) {
+        itemServer.expect(count, requestTo(SERVER + "/items/search?text=" + text + "&from=0&size=10"))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+    }
+
+    private void expectGetRequest(Long requestId, ExpectedCount count) {
+        requestServer.expect(count, requestTo(SERVER + "/requests/" + requestId))
+                .andRespond(withSuccess("{\"id\":" + requestId + "}", MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.tracing;
+
+import brave.Span;
+import brave.Tracer;
+import brave.Tracing;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class SlowTraceSpanHandlerTest {
+
+    private Tracing tracing;
+
+    @AfterEach
+    void tearDown() {
+        tracing.close();
+    }
+
+    @Test
+    void slowTraceIsLoggedWithChildren(CapturedOutput output) {
+        SlowTraceSpanHandler handler = handler(10, Duration.ofMinutes(1));
+
+        Span root = tracing.tracer().newTrace().name("root").start();
+        tracing.tracer().newChild(root.context()).name("child").start().finish();
+        assertThat(handler.bufferedTraces()).isEqualTo(1);
+        root.finish();
+
+        assertThat(handler.bufferedTraces()).isZero();
+        assertThat(output).contains("Slow trace " + root.context().traceIdString()).contains("child");
+    }
+
+    @Test
+    void childFinishingAfterRootIsDropped() {
+        SlowTraceSpanHandler handler = handler(10, Duration.ofMinutes(1));
+
+        Span root = tracing.tracer().newTrace().start();
+        Span child = tracing.tracer().newChild(root.context()).start();
+        root.finish();
+        child.finish();
+
+        assertThat(handler.bufferedTraces()).isZero();
+    }
+
+    @Test
+    void unfinishedRootsAreBounded() {
+        SlowTraceSpanHandler handler = handler(2, Duration.ofMinutes(1));
+        Tracer tracer = tracing.tracer();
+
+        for (int i = 0; i < 10; i++) {
+            tracer.newTrace().start();
+        }
+
+        assertThat(handler.bufferedTraces()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void unfinishedRootsExpire() throws InterruptedException {
+        SlowTraceSpanHandler handler = handler(10, Duration.ofMillis(10));
+
+        tracing.tracer().newTrace().start();
+        Thread.sleep(50);
+
+        assertThat(handler.bufferedTraces()).isZero();
+    }
+
+    private SlowTraceSpanHandler handler(int maxBufferedTraces, Duration maxTraceAge) {
+        SlowTraceSpanHandler handler = new SlowTraceSpanHandler(Duration.ZERO, maxBufferedTraces, maxTraceAge);
+        tracing = Tracing.newBuilder().addSpanHandler(handler).build();
+        return handler;
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.loadtest;
+
+/**
+ * Operations of the mixed workload. Latencies and errors are reported per endpoint.
+ */
+public enum Endpoint {
+    // Поиск вещей
+    SEARCH("search"),
+    // Вещи владельца
+    OWNER_ITEMS("owner-items"),
+    // Бронирования пользователя
+    BOOKINGS_OF_USER("bookings"),
+    // Бронирования вещей владельца
+    BOOKINGS_OF_OWNER("owner-bookings"),
+    // Новый отзыв
+    CREATE_COMMENT("create-comment"),
+    // Страница вещи
+    ITEM("item"),
+    // Запросы других пользователей
+    REQUESTS_OF_OTHERS("requests");
+
+    private final String name;
+
+    Endpoint(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public static Endpoint fromName(String name) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.name.equalsIgnoreCase(name)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint: " + name);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Collects every latency per endpoint. Percentiles are exact, computed by sorting when the run is over.
+ */
+public class LatencyRecorder {
+
+    private final Map<Endpoint, Samples> samples = new EnumMap<>(Endpoint.class);
+
+    public LatencyRecorder() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            samples.put(endpoint, new Samples());
+        }
+    }
+
+    public void success(Endpoint endpoint, long latencyNanos) {
+        samples.get(endpoint).add(latencyNanos);
+    }
+
+    public void error(Endpoint endpoint) {
+        samples.get(endpoint).error();
+    }
+
+    public void dropped(Endpoint endpoint) {
+        samples.get(endpoint).dropped();
+    }
+
+    public Samples get(Endpoint endpoint) {
+        return samples.get(endpoint);
+    }
+
+    public static class Samples {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+        private long dropped;
+
+        private synchronized void add(long latencyNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+        }
+
+        private synchronized void error() {
+            errors++;
+        }
+
+        private synchronized void dropped() {
+            dropped++;
+        }
+
+        public synchronized int getCount() {
+            return count;
+        }
+
+        public synchronized long getErrors() {
+            return errors;
+        }
+
+        public synchronized long getDropped() {
+            return dropped;
+        }
+
+        /**
+         * Returns the sorted latencies in nanoseconds.
+         */
+        public synchronized long[] sorted() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed arrival rate, independent of how fast responses come back (an open workload model),
+ * or over a fixed number of connections that each wait for a response before sending again (a closed model).
+ * <p>
+ * Latency is measured from the moment a request was due to be sent, not from when it was actually sent,
+ * so a stalled system shows up in the percentiles instead of silently lowering the offered load.
+ * When {@code maxInFlight} requests are outstanding, new ones are counted as dropped instead of being queued.
+ */
+@Slf4j
+public class LoadGenerator {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final Workload workload;
+    private final int rate;
+    private final int maxInFlight;
+    private final Random random;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public LoadGenerator(HttpClient httpClient, Workload workload, int rate, int maxInFlight, long seed) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + rate);
+        }
+        this.httpClient = httpClient;
+        this.workload = workload;
+        this.rate = rate;
+        this.maxInFlight = maxInFlight;
+        this.random = new Random(seed);
+    }
+
+    public void run(Duration duration, LatencyRecorder recorder) throws InterruptedException {
+
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long durationNanos = duration.toNanos();
+        long start = System.nanoTime();
+
+        for (long i = 0; i * periodNanos < durationNanos; i++) {
+            long intended = start + i * periodNanos;
+            for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Endpoint endpoint = workload.next(random);
+            HttpRequest request = workload.request(endpoint, random);
+
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                recorder.dropped(endpoint);
+                continue;
+            }
+
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latency = System.nanoTime() - intended;
+                        inFlight.decrementAndGet();
+                        if (error == null && response.statusCode() / 100 == 2) {
+                            recorder.success(endpoint, latency);
+                        } else {
+                            recorder.error(endpoint);
+                        }
+                    });
+        }
+
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        if (inFlight.get() > 0) {
+            log.warn("{} requests still in flight after {}", inFlight.get(), DRAIN_TIMEOUT);
+        }
+    }
+
+    /**
+     * Keeps {@code connections} requests outstanding for the whole run, each connection sending its next request
+     * as soon as the previous response arrives. Throughput is then what the system sustains at that concurrency,
+     * and latency is measured from the actual send.
+     */
+    public void runClosed(Duration duration, int connections, LatencyRecorder recorder) throws InterruptedException {
+
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch finished = new CountDownLatch(connections);
+        for (int i = 0; i < connections; i++) {
+            sendNext(deadline, recorder, finished);
+        }
+
+        if (!finished.await(duration.plus(DRAIN_TIMEOUT).toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("{} connections still waiting for a response after {}", finished.getCount(), DRAIN_TIMEOUT);
+        }
+    }
+
+    private void sendNext(long deadline, LatencyRecorder recorder, CountDownLatch finished) {
+
+        if (System.nanoTime() >= deadline) {
+            finished.countDown();
+            return;
+        }
+
+        Endpoint endpoint;
+        HttpRequest request;
+        synchronized (workload) {
+            endpoint = workload.next(random);
+            request = workload.request(endpoint, random);
+        }
+
+        long sent = System.nanoTime();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - sent;
+                    if (error == null && response.statusCode() / 100 == 2) {
+                        recorder.success(endpoint, latency);
+                    } else {
+                        recorder.error(endpoint);
+                    }
+                    sendNext(deadline, recorder, finished);
+                });
+    }
+}
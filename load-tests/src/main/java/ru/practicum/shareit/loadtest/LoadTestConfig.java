@@ -0,0 +1,185 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Options of a load test run, read from {@code --name=value} arguments.
+ */
+@Data
+public class LoadTestConfig {
+
+    /**
+     * Gateway to drive. When not given, the server and the gateway are started from the built jars.
+     */
+    private String target;
+    private String database = "h2";
+    private String jdbcUrl = "jdbc:postgresql://localhost:5432/shareit";
+    private String jdbcUser = "root";
+    private String jdbcPassword = "root";
+    private Path projectDir = Path.of(".");
+    private int serverPort = 9090;
+    private int gatewayPort = 8080;
+    /**
+     * Application the load is sent to when the stack is started here: {@code gateway} or {@code server}.
+     */
+    private String via = "gateway";
+    /**
+     * Value of {@code shareit.threads} for a started server: {@code platform} or {@code virtual} (Java 21 only).
+     */
+    private String serverThreads = "platform";
+    /**
+     * Value of {@code shareit.entity-cache.enabled} for a started server, the server's own default when not given.
+     */
+    private Boolean entityCache;
+
+    private int owners = 50;
+    private int itemsPerOwner = 20;
+    private int bookers = 200;
+    private int requests = 100;
+    private int bookingsPerBooker = 10;
+
+    private int rate = 200;
+    /**
+     * When positive, the rate is ignored and this many connections send requests back to back instead.
+     */
+    private int connections;
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(60);
+    private int maxInFlight = 2000;
+    private long seed = 42;
+    private Map<Endpoint, Integer> mix = new EnumMap<>(Map.of(
+            Endpoint.SEARCH, 30,
+            Endpoint.OWNER_ITEMS, 30,
+            Endpoint.BOOKINGS_OF_USER, 15,
+            Endpoint.BOOKINGS_OF_OWNER, 15,
+            Endpoint.CREATE_COMMENT, 10));
+    private Path report = Path.of("load-test-report.json");
+
+    public static LoadTestConfig parse(String[] args) {
+
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadTestConfig config = new LoadTestConfig();
+        options.forEach((name, value) -> config.set(name, value));
+        return config;
+    }
+
+    private void set(String name, String value) {
+        switch (name) {
+            case "target":
+                target = value;
+                break;
+            case "database":
+                if (!value.equals("h2") && !value.equals("postgres")) {
+                    throw new IllegalArgumentException("Unknown database: " + value);
+                }
+                database = value;
+                break;
+            case "jdbc-url":
+                jdbcUrl = value;
+                break;
+            case "jdbc-user":
+                jdbcUser = value;
+                break;
+            case "jdbc-password":
+                jdbcPassword = value;
+                break;
+            case "project-dir":
+                projectDir = Path.of(value);
+                break;
+            case "server-port":
+                serverPort = Integer.parseInt(value);
+                break;
+            case "gateway-port":
+                gatewayPort = Integer.parseInt(value);
+                break;
+            case "via":
+                if (!value.equals("gateway") && !value.equals("server")) {
+                    throw new IllegalArgumentException("Unknown application: " + value);
+                }
+                via = value;
+                break;
+            case "server-threads":
+                if (!value.equals("platform") && !value.equals("virtual")) {
+                    throw new IllegalArgumentException("Unknown thread mode: " + value);
+                }
+                serverThreads = value;
+                break;
+            case "entity-cache":
+                if (!value.equals("on") && !value.equals("off")) {
+                    throw new IllegalArgumentException("Expected on or off for the entity cache, got: " + value);
+                }
+                entityCache = value.equals("on");
+                break;
+            case "owners":
+                owners = Integer.parseInt(value);
+                break;
+            case "items-per-owner":
+                itemsPerOwner = Integer.parseInt(value);
+                break;
+            case "bookers":
+                bookers = Integer.parseInt(value);
+                break;
+            case "requests":
+                requests = Integer.parseInt(value);
+                break;
+            case "bookings-per-booker":
+                bookingsPerBooker = Integer.parseInt(value);
+                break;
+            case "rate":
+                rate = Integer.parseInt(value);
+                break;
+            case "connections":
+                connections = Integer.parseInt(value);
+                break;
+            case "warmup":
+                warmup = Duration.ofSeconds(Long.parseLong(value));
+                break;
+            case "duration":
+                duration = Duration.ofSeconds(Long.parseLong(value));
+                break;
+            case "max-in-flight":
+                maxInFlight = Integer.parseInt(value);
+                break;
+            case "seed":
+                seed = Long.parseLong(value);
+                break;
+            case "mix":
+                mix = parseMix(value);
+                break;
+            case "report":
+                report = Path.of(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: --" + name);
+        }
+    }
+
+    /**
+     * Parses weights such as {@code search:30,owner-items:30,create-comment:10}. Endpoints not listed get no traffic.
+     */
+    private static Map<Endpoint, Integer> parseMix(String value) {
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected endpoint:weight, got: " + entry);
+            }
+            mix.put(Endpoint.fromName(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
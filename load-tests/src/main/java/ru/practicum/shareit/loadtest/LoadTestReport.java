@@ -0,0 +1,96 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a measured run: throughput and latency percentiles per endpoint, written as JSON.
+ */
+@Data
+public class LoadTestReport {
+
+    private LocalDateTime finished;
+    private String target;
+    private String database;
+    private int rate;
+    private int connections;
+    private long durationSeconds;
+    private Map<Endpoint, Integer> mix;
+    private int users;
+    private int items;
+    private int bookings;
+    private List<EndpointReport> endpoints = new ArrayList<>();
+    private ServerStats server;
+    private List<StatementStats> statements;
+
+    public static LoadTestReport of(LoadTestConfig config, String target, SeedData data, LatencyRecorder recorder,
+                                    ServerStats server, List<StatementStats> statements) {
+
+        LoadTestReport report = new LoadTestReport();
+        report.setFinished(LocalDateTime.now());
+        report.setTarget(target);
+        report.setDatabase(config.getTarget() == null ? config.getDatabase() : "external");
+        report.setRate(config.getConnections() > 0 ? 0 : config.getRate());
+        report.setConnections(config.getConnections());
+        report.setDurationSeconds(config.getDuration().toSeconds());
+        report.setMix(config.getMix());
+        report.setUsers(data.getOwnerIds().size() + data.getBookerIds().size());
+        report.setItems(data.getItemIds().size());
+        report.setBookings(data.getBookings());
+
+        for (Endpoint endpoint : config.getMix().keySet()) {
+            report.getEndpoints().add(EndpointReport.of(endpoint, recorder.get(endpoint), config.getDuration()));
+        }
+        report.setServer(server);
+        report.setStatements(statements);
+        return report;
+    }
+
+    @Data
+    public static class EndpointReport {
+
+        private String endpoint;
+        private long requests;
+        private long errors;
+        private long dropped;
+        private double throughput;
+        private double p50Ms;
+        private double p99Ms;
+        private double p999Ms;
+        private double maxMs;
+
+        private static EndpointReport of(Endpoint endpoint, LatencyRecorder.Samples samples, Duration duration) {
+
+            long[] latencies = samples.sorted();
+
+            EndpointReport report = new EndpointReport();
+            report.setEndpoint(endpoint.getName());
+            report.setRequests(latencies.length);
+            report.setErrors(samples.getErrors());
+            report.setDropped(samples.getDropped());
+            report.setThroughput(latencies.length * 1000.0 / duration.toMillis());
+            report.setP50Ms(percentile(latencies, 0.5));
+            report.setP99Ms(percentile(latencies, 0.99));
+            report.setP999Ms(percentile(latencies, 0.999));
+            report.setMaxMs(latencies.length > 0 ? toMillis(latencies[latencies.length - 1]) : 0);
+            return report;
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return toMillis(sorted[Math.max(index, 0)]);
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
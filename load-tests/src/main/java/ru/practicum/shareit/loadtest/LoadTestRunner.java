@@ -0,0 +1,112 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Seeds a ShareIt stack and drives a mixed workload through the gateway at a fixed arrival rate.
+ * <p>
+ * Without {@code --target} the server and the gateway are started from the jars built by
+ * {@code mvn -P benchmarks package}, on H2 ({@code --database=h2}, the default) or on Postgres
+ * ({@code --database=postgres --jdbc-url=...}). Results are printed and written to {@code --report}.
+ * <p>
+ * To compare the server's thread modes, send load straight to it over many connections, once per mode:
+ * {@code --via=server --connections=10000 --server-threads=platform}, then {@code --server-threads=virtual}
+ * (Java 21). The report then carries the server's thread count and memory next to the throughput.
+ * <p>
+ * A started server also reports the SQL statements per request of each endpoint. To see what the entity cache
+ * saves, run once with {@code --entity-cache=on} and once with {@code --entity-cache=off}.
+ */
+@Slf4j
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+        try (StackLauncher launcher = new StackLauncher(config)) {
+            String target = config.getTarget() != null ? config.getTarget() : launcher.start();
+            ShareItApi api = new ShareItApi(target, executor);
+
+            log.info("Seeding {}", target);
+            SeedData data = new Seeder(api, config).seed();
+
+            Workload workload = new Workload(api, data, config.getMix());
+            LoadGenerator generator = new LoadGenerator(api.getHttpClient(), workload,
+                    config.getRate(), config.getMaxInFlight(), config.getSeed());
+
+            if (!config.getWarmup().isZero()) {
+                log.info("Warming up for {} s at {}", config.getWarmup().toSeconds(), load(config));
+                run(generator, config, config.getWarmup(), new LatencyRecorder());
+            }
+
+            Map<String, StatementStats.Totals> statementsBefore = config.getTarget() == null
+                    ? StatementStats.read(api, launcher.getServerUrl())
+                    : null;
+
+            log.info("Measuring for {} s at {}", config.getDuration().toSeconds(), load(config));
+            LatencyRecorder recorder = new LatencyRecorder();
+            run(generator, config, config.getDuration(), recorder);
+
+            ServerStats server = null;
+            List<StatementStats> statements = null;
+            if (config.getTarget() == null) {
+                server = ServerStats.collect(api, launcher.getServerUrl(), config.getServerThreads(),
+                        launcher.serverPeakRssKb());
+                statements = StatementStats.between(statementsBefore, StatementStats.read(api, launcher.getServerUrl()));
+            }
+            LoadTestReport report = LoadTestReport.of(config, target, data, recorder, server, statements);
+            print(report);
+            api.getObjectMapper().writerWithDefaultPrettyPrinter().writeValue(config.getReport().toFile(), report);
+            log.info("Report written to {}", config.getReport().toAbsolutePath());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void run(LoadGenerator generator, LoadTestConfig config, Duration duration,
+                            LatencyRecorder recorder) throws InterruptedException {
+        if (config.getConnections() > 0) {
+            generator.runClosed(duration, config.getConnections(), recorder);
+        } else {
+            generator.run(duration, recorder);
+        }
+    }
+
+    private static String load(LoadTestConfig config) {
+        return config.getConnections() > 0
+                ? config.getConnections() + " connections"
+                : config.getRate() + " requests/s";
+    }
+
+    private static void print(LoadTestReport report) {
+        System.out.printf("%-16s %10s %8s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "dropped", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (LoadTestReport.EndpointReport endpoint : report.getEndpoints()) {
+            System.out.printf("%-16s %10d %8d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    endpoint.getEndpoint(), endpoint.getRequests(), endpoint.getErrors(), endpoint.getDropped(),
+                    endpoint.getThroughput(), endpoint.getP50Ms(), endpoint.getP99Ms(), endpoint.getP999Ms(),
+                    endpoint.getMaxMs());
+        }
+        ServerStats server = report.getServer();
+        if (server != null) {
+            System.out.printf("server on %s threads: %d live, %d peak, heap %.1f MB, non-heap %.1f MB, peak RSS %s%n",
+                    server.getThreads(), server.getLiveThreads(), server.getPeakThreads(), server.getHeapUsedMb(),
+                    server.getNonHeapUsedMb(),
+                    server.getPeakRssMb() != null ? String.format("%.1f MB", server.getPeakRssMb()) : "unknown");
+        }
+        if (report.getStatements() != null && !report.getStatements().isEmpty()) {
+            System.out.printf("%-44s %10s %14s %10s%n", "server endpoint", "requests", "statements/req", "rows/req");
+            for (StatementStats endpoint : report.getStatements()) {
+                System.out.printf("%-44s %10d %14.2f %10.2f%n", endpoint.getEndpoint(), endpoint.getRequests(),
+                        endpoint.getStatementsPerRequest(), endpoint.getRowsPerRequest());
+            }
+        }
+    }
+}
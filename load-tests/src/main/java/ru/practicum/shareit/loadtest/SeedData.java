@@ -0,0 +1,31 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ids created by {@link Seeder} that the workload draws its requests from.
+ */
+@Data
+public class SeedData {
+
+    private final List<Long> ownerIds = new ArrayList<>();
+    private final List<Long> bookerIds = new ArrayList<>();
+    private final List<Long> itemIds = new ArrayList<>();
+    private final List<String> searchWords = new ArrayList<>();
+    private final List<Commentable> commentables = new ArrayList<>();
+    private int bookings;
+
+    /**
+     * A booker whose booking of the item has ended, so they are allowed to comment on it.
+     */
+    @Data
+    public static class Commentable {
+
+        private final Long bookerId;
+
+        private final Long itemId;
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Creates users, requests, items and bookings through the gateway.
+ * <p>
+ * Every booker gets one short booking that ends a few seconds after seeding, so that comments can be created
+ * and {@code PAST} queries return something, and one long booking that is current during the run.
+ * The remaining bookings lie in the future in windows that never overlap, and most of them are approved.
+ */
+@Slf4j
+public class Seeder {
+
+    private static final List<String> ADJECTIVES = List.of(
+            "electric", "cordless", "compact", "heavy", "folding", "portable", "garden", "wooden", "steel", "vintage");
+    private static final List<String> NOUNS = List.of(
+            "drill", "ladder", "saw", "tent", "bicycle", "kayak", "projector", "mixer", "hammer", "sander",
+            "grill", "trailer", "camera", "speaker", "scooter", "wrench", "stroller", "vacuum", "snowboard", "jack");
+
+    private static final int BATCH_SIZE = 100;
+    private static final long SHORT_BOOKING_SECONDS = 3;
+
+    private final ShareItApi api;
+    private final LoadTestConfig config;
+    private final Random random;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    public Seeder(ShareItApi api, LoadTestConfig config) {
+        this.api = api;
+        this.config = config;
+        this.random = new Random(config.getSeed());
+    }
+
+    public SeedData seed() throws IOException, InterruptedException {
+
+        SeedData data = new SeedData();
+        data.getSearchWords().addAll(ADJECTIVES);
+        data.getSearchWords().addAll(NOUNS);
+
+        for (int i = 0; i < config.getOwners(); i++) {
+            data.getOwnerIds().add(createUser("owner", i));
+        }
+        for (int i = 0; i < config.getBookers(); i++) {
+            data.getBookerIds().add(createUser("booker", i));
+        }
+        log.info("Created {} users", data.getOwnerIds().size() + data.getBookerIds().size());
+
+        List<Long> requestIds = new ArrayList<>();
+        for (int i = 0; i < config.getRequests(); i++) {
+            JsonNode request = api.send(api.post("/requests", pick(data.getBookerIds()),
+                    Map.of("description", "Need a " + pick(ADJECTIVES) + " " + pick(NOUNS))));
+            requestIds.add(request.get("id").asLong());
+        }
+        log.info("Created {} requests", requestIds.size());
+
+        Map<Long, Long> ownerOfItem = new HashMap<>();
+        for (Long ownerId : data.getOwnerIds()) {
+            for (int i = 0; i < config.getItemsPerOwner(); i++) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("name", pick(ADJECTIVES) + " " + pick(NOUNS));
+                item.put("description", pick(NOUNS) + " for rent, " + pick(ADJECTIVES) + " " + pick(NOUNS) + " included");
+                item.put("available", true);
+                if (!requestIds.isEmpty() && random.nextInt(10) == 0) {
+                    item.put("requestId", pick(requestIds));
+                }
+                Long itemId = api.send(api.post("/items", ownerId, item)).get("id").asLong();
+                data.getItemIds().add(itemId);
+                ownerOfItem.put(itemId, ownerId);
+            }
+        }
+        log.info("Created {} items", data.getItemIds().size());
+
+        LocalDateTime futureBase = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusDays(1);
+        LocalDateTime shortEnd = LocalDateTime.now();
+        long window = 0;
+
+        Map<Long, List<Long>> approvable = new HashMap<>();
+        for (Long bookerId : data.getBookerIds()) {
+            List<Map<String, Object>> bookings = new ArrayList<>();
+
+            LocalDateTime shortStart = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(2);
+            shortEnd = shortStart.plusSeconds(SHORT_BOOKING_SECONDS);
+
+            Long commented = pick(data.getItemIds());
+            bookings.add(booking(commented, shortStart, shortEnd));
+            bookings.add(booking(pick(data.getItemIds()), shortStart, shortStart.plusDays(30)));
+            for (int i = 2; i < config.getBookingsPerBooker(); i++) {
+                LocalDateTime start = futureBase.plusHours(2 * window++);
+                bookings.add(booking(pick(data.getItemIds()), start, start.plusHours(1)));
+            }
+
+            for (int from = 0; from < bookings.size(); from += BATCH_SIZE) {
+                JsonNode results = api.send(api.post("/bookings/batch", bookerId,
+                        bookings.subList(from, Math.min(from + BATCH_SIZE, bookings.size()))));
+                for (int i = 0; i < results.size(); i++) {
+                    JsonNode result = results.get(i);
+                    if (result.hasNonNull("error")) {
+                        continue;
+                    }
+                    data.setBookings(data.getBookings() + 1);
+                    // The first two are the short and the current booking, which stay waiting.
+                    if (from + i >= 2 && random.nextInt(10) < 8) {
+                        approvable.computeIfAbsent(ownerOfItem.get(result.get("itemId").asLong()), id -> new ArrayList<>())
+                                .add(result.get("bookingId").asLong());
+                    }
+                }
+            }
+            data.getCommentables().add(new SeedData.Commentable(bookerId, commented));
+        }
+
+        for (Map.Entry<Long, List<Long>> entry : approvable.entrySet()) {
+            List<Long> bookingIds = entry.getValue();
+            for (int from = 0; from < bookingIds.size(); from += BATCH_SIZE) {
+                List<Map<String, Object>> approvals = new ArrayList<>();
+                for (Long bookingId : bookingIds.subList(from, Math.min(from + BATCH_SIZE, bookingIds.size()))) {
+                    approvals.add(Map.of("bookingId", bookingId, "approved", random.nextInt(10) != 0));
+                }
+                api.send(api.patch("/bookings/batch", entry.getKey(), approvals));
+            }
+        }
+        log.info("Created {} bookings", data.getBookings());
+
+        long untilShortEnd = ChronoUnit.MILLIS.between(LocalDateTime.now(), shortEnd.plusSeconds(1));
+        if (untilShortEnd > 0) {
+            Thread.sleep(untilShortEnd);
+        }
+        return data;
+    }
+
+    private Long createUser(String role, int index) throws IOException, InterruptedException {
+        String name = role + "-" + index;
+        Map<String, Object> user = Map.of("name", name, "email", name + "." + runId + "@loadtest.example.com");
+        return api.send(api.post("/users", null, user)).get("id").asLong();
+    }
+
+    private static Map<String, Object> booking(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return Map.of("itemId", itemId, "start", start, "end", end);
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
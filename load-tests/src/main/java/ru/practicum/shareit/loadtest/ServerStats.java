@@ -0,0 +1,55 @@
+package ru.practicum.shareit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.OptionalLong;
+
+/**
+ * Thread and memory figures of the server after a run, read from its actuator metrics endpoint.
+ * They tell the cost of the server's concurrency model, which request latencies alone do not.
+ */
+@Slf4j
+@Data
+public class ServerStats {
+
+    private String threads;
+    private long liveThreads;
+    private long peakThreads;
+    private double heapUsedMb;
+    private double nonHeapUsedMb;
+    /**
+     * Includes thread stacks, which the JVM memory pools do not. Only known for a server started by the run.
+     */
+    private Double peakRssMb;
+
+    public static ServerStats collect(ShareItApi api, String serverUrl, String threads, OptionalLong peakRssKb)
+            throws InterruptedException {
+
+        ServerStats stats = new ServerStats();
+        stats.setThreads(threads);
+        try {
+            stats.setLiveThreads((long) metric(api, serverUrl, "jvm.threads.live"));
+            stats.setPeakThreads((long) metric(api, serverUrl, "jvm.threads.peak"));
+            stats.setHeapUsedMb(metric(api, serverUrl, "jvm.memory.used?tag=area:heap") / 1024 / 1024);
+            stats.setNonHeapUsedMb(metric(api, serverUrl, "jvm.memory.used?tag=area:nonheap") / 1024 / 1024);
+        } catch (IOException | IllegalStateException e) {
+            log.warn("Could not read metrics of {}: {}", serverUrl, e.getMessage());
+        }
+        if (peakRssKb.isPresent()) {
+            stats.setPeakRssMb(peakRssKb.getAsLong() / 1024.0);
+        }
+        return stats;
+    }
+
+    private static double metric(ShareItApi api, String serverUrl, String name)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(serverUrl + "/actuator/metrics/" + name)).build();
+        JsonNode measurements = api.send(request).path("measurements");
+        return measurements.path(0).path("value").asDouble();
+    }
+}
@@ -0,0 +1,177 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Starts the server and the gateway from their executable jars and stops them when closed.
+ * The server runs either with the in-memory {@code ci,test} profile or against the configured Postgres,
+ * handling requests on platform or virtual threads.
+ */
+@Slf4j
+public class StackLauncher implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final LoadTestConfig config;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+    private final List<Process> processes = new ArrayList<>();
+    private Process server;
+
+    public StackLauncher(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Starts both applications and, once both report healthy, returns the URL of the one set by {@code --via}.
+     */
+    public String start() throws IOException, InterruptedException {
+
+        List<String> serverCommand = javaCommand(findJar("server"));
+        serverCommand.add("--server.port=" + config.getServerPort());
+        serverCommand.add("--shareit.threads=" + config.getServerThreads());
+        serverCommand.add("--shareit.query-budget.enabled=true");
+        if (config.getEntityCache() != null) {
+            serverCommand.add("--shareit.entity-cache.enabled=" + config.getEntityCache());
+        }
+        if (config.getDatabase().equals("h2")) {
+            serverCommand.add("--spring.profiles.active=ci,test");
+        } else {
+            serverCommand.add("--spring.datasource.url=" + config.getJdbcUrl());
+            serverCommand.add("--spring.datasource.username=" + config.getJdbcUser());
+            serverCommand.add("--spring.datasource.password=" + config.getJdbcPassword());
+        }
+        server = start("server", serverCommand);
+        String serverUrl = getServerUrl();
+        awaitHealthy(serverUrl);
+
+        List<String> gateway = javaCommand(findJar("gateway"));
+        gateway.add("--server.port=" + config.getGatewayPort());
+        gateway.add("--shareit-server.url=" + serverUrl);
+        gateway.add("--logging.level.org.springframework.web.client.RestTemplate=INFO");
+        start("gateway", gateway);
+        String gatewayUrl = "http://localhost:" + config.getGatewayPort();
+        awaitHealthy(gatewayUrl);
+
+        return config.getVia().equals("server") ? serverUrl : gatewayUrl;
+    }
+
+    public String getServerUrl() {
+        return "http://localhost:" + config.getServerPort();
+    }
+
+    /**
+     * Peak resident set size of the started server, from {@code /proc}. Empty when nothing was started
+     * or when not running on Linux.
+     */
+    public OptionalLong serverPeakRssKb() {
+        if (server == null) {
+            return OptionalLong.empty();
+        }
+        Path status = Path.of("/proc", Long.toString(server.pid()), "status");
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmHWM:"))
+                    .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                    .findFirst();
+        } catch (IOException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (int i = processes.size() - 1; i >= 0; i--) {
+            Process process = processes.get(i);
+            process.destroy();
+            try {
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Process start(String name, List<String> command) throws IOException {
+        Path logFile = Path.of("load-test-" + name + ".log");
+        log.info("Starting {}, output goes to {}", name, logFile.toAbsolutePath());
+
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        processes.add(process);
+        return process;
+    }
+
+    private void awaitHealthy(String baseUrl) throws InterruptedException {
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        Instant deadline = Instant.now().plus(STARTUP_TIMEOUT);
+
+        while (Instant.now().isBefore(deadline)) {
+            for (Process process : processes) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Process exited with code " + process.exitValue()
+                            + " before " + baseUrl + " became healthy, see load-test-*.log");
+                }
+            }
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    log.info("{} is up", baseUrl);
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException(baseUrl + " did not become healthy within " + STARTUP_TIMEOUT);
+    }
+
+    private List<String> javaCommand(Path jar) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-jar");
+        command.add(jar.toString());
+        return command;
+    }
+
+    /**
+     * Finds the executable jar that {@code mvn -P benchmarks package} builds in the module's target directory.
+     */
+    private Path findJar(String module) throws IOException {
+        Path target = config.getProjectDir().resolve(module).resolve("target");
+        if (!Files.isDirectory(target)) {
+            throw new IllegalStateException("No " + target + ", build the project with -P benchmarks first");
+        }
+        try (Stream<Path> files = Files.list(target)) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith("-exec.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException(
+                            "No executable jar in " + target + ", build the project with -P benchmarks first"));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SQL statements and fetched rows per request of a server endpoint during the measured run, from the summaries
+ * the server's query budget records. They are read before and after the run, so seeding and warm-up do not count.
+ * Comparing runs with {@code --entity-cache=on} and {@code off} tells the database round trips the cache saves.
+ */
+@Slf4j
+@Data
+public class StatementStats {
+
+    private static final String STATEMENTS = "shareit.http.statements";
+    private static final String ROWS = "shareit.http.rows";
+
+    private String endpoint;
+    private long requests;
+    private double statementsPerRequest;
+    private double rowsPerRequest;
+
+    /**
+     * Totals so far per endpoint, keyed by the server's {@code Controller.method} name. Empty when the server
+     * has recorded none.
+     */
+    public static Map<String, Totals> read(ShareItApi api, String serverUrl) throws InterruptedException {
+
+        Map<String, Totals> totals = new TreeMap<>();
+        try {
+            for (JsonNode tag : api.send(metric(serverUrl, STATEMENTS, null)).path("availableTags")) {
+                if (!tag.path("tag").asText().equals("endpoint")) {
+                    continue;
+                }
+                for (JsonNode value : tag.path("values")) {
+                    String endpoint = value.asText();
+                    JsonNode statements = api.send(metric(serverUrl, STATEMENTS, endpoint)).path("measurements");
+                    JsonNode rows = api.send(metric(serverUrl, ROWS, endpoint)).path("measurements");
+                    totals.put(endpoint, new Totals((long) statistic(statements, "COUNT"),
+                            statistic(statements, "TOTAL"), statistic(rows, "TOTAL")));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.info("No statement counts from {}: {}", serverUrl, e.getMessage());
+        }
+        return totals;
+    }
+
+    public static List<StatementStats> between(Map<String, Totals> before, Map<String, Totals> after) {
+
+        List<StatementStats> stats = new ArrayList<>();
+        after.forEach((endpoint, totals) -> {
+            Totals earlier = before.getOrDefault(endpoint, new Totals(0, 0, 0));
+            long requests = totals.getRequests() - earlier.getRequests();
+            if (requests == 0) {
+                return;
+            }
+            StatementStats endpointStats = new StatementStats();
+            endpointStats.setEndpoint(endpoint);
+            endpointStats.setRequests(requests);
+            endpointStats.setStatementsPerRequest((totals.getStatements() - earlier.getStatements()) / requests);
+            endpointStats.setRowsPerRequest((totals.getRows() - earlier.getRows()) / requests);
+            stats.add(endpointStats);
+        });
+        return stats;
+    }
+
+    private static HttpRequest metric(String serverUrl, String name, String endpoint) {
+        String query = endpoint != null ? "?tag=endpoint:" + endpoint : "";
+        return HttpRequest.newBuilder(URI.create(serverUrl + "/actuator/metrics/" + name + query)).build();
+    }
+
+    private static double statistic(JsonNode measurements, String statistic) {
+        for (JsonNode measurement : measurements) {
+            if (measurement.path("statistic").asText().equals(statistic)) {
+                return measurement.path("value").asDouble();
+            }
+        }
+        return 0;
+    }
+
+    @Data
+    public static class Totals {
+
+        private final long requests;
+
+        private final double statements;
+
+        private final double rows;
+    }
+}
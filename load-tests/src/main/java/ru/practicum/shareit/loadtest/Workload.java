@@ -0,0 +1,81 @@
+package ru.practicum.shareit.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Picks endpoints according to the configured weights and builds their requests from the seeded data.
+ */
+public class Workload {
+
+    private static final List<String> STATES = List.of("ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED");
+
+    private final ShareItApi api;
+    private final SeedData data;
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+    private long comments;
+
+    public Workload(ShareItApi api, SeedData data, Map<Endpoint, Integer> mix) {
+        this.api = api;
+        this.data = data;
+
+        List<Map.Entry<Endpoint, Integer>> weighted = List.copyOf(mix.entrySet());
+        this.endpoints = new Endpoint[weighted.size()];
+        this.cumulativeWeights = new int[weighted.size()];
+        int total = 0;
+        for (int i = 0; i < weighted.size(); i++) {
+            if (weighted.get(i).getValue() < 0) {
+                throw new IllegalArgumentException("Negative weight of " + weighted.get(i).getKey().getName());
+            }
+            total += weighted.get(i).getValue();
+            endpoints[i] = weighted.get(i).getKey();
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("The workload mix has no endpoints");
+        }
+    }
+
+    public Endpoint next(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return endpoints[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    public HttpRequest request(Endpoint endpoint, Random random) {
+        switch (endpoint) {
+            case SEARCH:
+                return api.get("/items/search?text=" + pick(data.getSearchWords(), random) + "&from=0&size=10",
+                        pick(data.getBookerIds(), random));
+            case OWNER_ITEMS:
+                return api.get("/items?from=0&size=10", pick(data.getOwnerIds(), random));
+            case BOOKINGS_OF_USER:
+                return api.get("/bookings?state=" + pick(STATES, random) + "&from=0&size=10",
+                        pick(data.getBookerIds(), random));
+            case BOOKINGS_OF_OWNER:
+                return api.get("/bookings/owner?state=" + pick(STATES, random) + "&from=0&size=10",
+                        pick(data.getOwnerIds(), random));
+            case CREATE_COMMENT:
+                SeedData.Commentable commentable = pick(data.getCommentables(), random);
+                return api.post("/items/" + commentable.getItemId() + "/comment", commentable.getBookerId(),
+                        Map.of("text", "Load test comment " + ++comments));
+            case ITEM:
+                return api.get("/items/" + pick(data.getItemIds(), random), pick(data.getBookerIds(), random));
+            case REQUESTS_OF_OTHERS:
+                return api.get("/requests/all?from=0&size=10", pick(data.getBookerIds(), random));
+            default:
+                throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+        }
+    }
+
+    private static <T> T pick(List<T> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
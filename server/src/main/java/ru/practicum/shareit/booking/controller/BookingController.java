@@ -1,28 +1,61 @@
 package ru.practicum.shareit.booking.controller;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.TooManyExportsException;
 
 import java.util.List;
+import java.util.concurrent.Semaphore;
 
 
 @RestController
 @RequestMapping(path = "/bookings")
-@RequiredArgsConstructor
 public class BookingController {
 
     private final BookingService bookingService;
     public static final String USER_ID = "X-Sharer-User-id";
 
+    /**
+     * Each running export holds a database connection until its last line is written, so their number is
+     * capped below the connection pool size, whichever executor runs them.
+     */
+    private final Semaphore exports;
+
+    public BookingController(BookingService bookingService,
+                             @Value("${shareit.booking.max-concurrent-exports}") int maxConcurrentExports) {
+        this.bookingService = bookingService;
+        this.exports = new Semaphore(maxConcurrentExports);
+    }
+
     @PostMapping
     public BookingDto createBooking(@RequestHeader(USER_ID) Long userId, @RequestBody BookingDto bookingDto) {
 
         return bookingService.createBooking(userId, bookingDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResult> createBookings(@RequestHeader(USER_ID) Long userId,
+                                                   @RequestBody List<BookingDto> bookingDtos) {
+
+        return bookingService.createBookings(userId, bookingDtos);
+    }
+
+    @PatchMapping("/batch")
+    public List<BookingBatchResult> setApprovals(@RequestHeader(USER_ID) Long userId,
+                                                 @RequestBody List<BookingApprovalDto> approvals) {
+
+        return bookingService.setApprovals(userId, approvals);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto setApproval(@RequestParam Boolean approved,
                                   @PathVariable Long bookingId,
@@ -37,11 +70,28 @@ public class BookingController {
         return bookingService.findBookingById(bookingId, userId);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsOfUser(@RequestHeader(USER_ID) Long userId) {
+
+        return export(out -> bookingService.exportBookingsOfUser(userId, out));
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsOfOwner(@RequestHeader(USER_ID) Long userId) {
+
+        return export(out -> bookingService.exportBookingsOfOwner(userId, out));
+    }
+
     @GetMapping("/owner")
     public List<BookingDto> findBookingsOfOwner(@RequestHeader(USER_ID) Long userId,
                                                 @RequestParam(value = "state", defaultValue = "ALL") String state,
                                                 @RequestParam(defaultValue = "0") Integer from,
-                                                @RequestParam(defaultValue = "10") Integer size) {
+                                                @RequestParam(defaultValue = "10") Integer size,
+                                                @RequestParam(required = false) String after) {
+
+        if (after != null) {
+            return bookingService.findBookingsOfOwner(userId, state, BookingCursor.parse(after), size);
+        }
 
         int page = from / size;
 
@@ -52,10 +102,34 @@ public class BookingController {
     public List<BookingDto> findBookingsOfUser(@RequestParam(value = "state", defaultValue = "ALL") String state,
                                                @RequestHeader(USER_ID) Long userId,
                                                @RequestParam(defaultValue = "0") Integer from,
-                                               @RequestParam(defaultValue = "10") Integer size) {
+                                               @RequestParam(defaultValue = "10") Integer size,
+                                               @RequestParam(required = false) String after) {
+
+        if (after != null) {
+            return bookingService.findBookingsOfUser(userId, state, BookingCursor.parse(after), size);
+        }
 
         int page = from / size;
 
         return bookingService.findBookingsOfUser(userId, state, PageRequest.of(page, size));
     }
+
+    /**
+     * Takes an export slot on the request thread and gives it back once the body has been written.
+     */
+    private ResponseEntity<StreamingResponseBody> export(StreamingResponseBody body) {
+
+        if (!exports.tryAcquire()) {
+            throw new TooManyExportsException("Слишком много одновременных выгрузок, повторите попытку позже.");
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> {
+                    try {
+                        body.writeTo(out);
+                    } finally {
+                        exports.release();
+                    }
+                });
+    }
 }
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Data;
+import ru.practicum.shareit.exception.InvalidDataException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position of the last booking of a page: its start date and id, written as {@code start,id}.
+ */
+@Data
+public class BookingCursor {
+
+    private final LocalDateTime start;
+
+    private final Long id;
+
+    public static BookingCursor parse(String value) {
+
+        String[] parts = value.split(",");
+        if (parts.length != 2) {
+            throw new InvalidDataException("Неправильный формат курсора: " + value);
+        }
+
+        try {
+            return new BookingCursor(LocalDateTime.parse(parts[0].trim()), Long.parseLong(parts[1].trim()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new InvalidDataException("Неправильный формат курсора: " + value);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dto;
+
+public interface BookingShort {
+
+    Long getItemId();
+
+    Long getId();
+
+    Long getBookerId();
+
+    Boolean getIsLast();
+}
@@ -1,66 +1,197 @@
 package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingShort;
 import ru.practicum.shareit.booking.model.Booking;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.*;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    @Query(value = "select * from bookings b " +
-            "join items i on i.id = b.item_id " +
-            "where b.id = ?1 and (booker_id = ?2 or owner_id = ?2)", nativeQuery = true)
-    Optional<Booking> findBookingByBookerOrOwner(Long bookingId, Long userId);
+    int STREAM_FETCH_SIZE = 500;
 
-    List<Booking> findAllByBooker_IdOrderByStartDesc(Long userId, Pageable pageable);
+    @EntityGraph(attributePaths = "item")
+    Optional<Booking> findWithItemById(Long bookingId);
 
-    @Query(value = "select * from bookings b " +
-            "join items i on i.id = b.item_id " +
-            "where b.booker_id = ?1 and (?2 between b.start_date and b.end_date) " +
-            "order by b.start_date desc", nativeQuery = true)
-    List<Booking> findAllByBooker_IdAndStatusCurrent(Long userId, LocalDateTime localDateTime, Pageable pageable);
+    @EntityGraph(attributePaths = "item")
+    List<Booking> findAllWithItemByIdIn(Collection<Long> bookingIds);
 
-    List<Booking> findAllByBooker_IdAndStartIsAfterOrderByStartDesc(Long userId, LocalDateTime localDateTime, Pageable pageable);
+    @Query("select b from Booking b " +
+            "where b.item.id in ?1 and b.status = 'APPROVED' and b.end > ?2")
+    List<Booking> findApprovedEndingAfter(Collection<Long> itemIds, LocalDateTime time);
 
-    List<Booking> findAllByBooker_IdAndEndIsBeforeOrderByStartDesc(Long userId, LocalDateTime localDateTime, Pageable pageable);
+    @Query("select count(b) > 0 from Booking b " +
+            "where b.item.id = ?1 and b.status = 'APPROVED' and b.start < ?3 and b.end > ?2")
+    boolean existsApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end);
 
-    @Query(value = "select * from bookings b " +
-            "join items i on i.id = b.item_id " +
-            "where b.booker_id = ?1 and i.id = ?2 and ?3 > b.end_date " +
-            "order by b.start_date desc", nativeQuery = true)
-    List<Booking> findAllByBooker_IdAndEndIsBeforeOrderByStartDesc(Long userId, Long itemId, LocalDateTime localDateTime);
+    @Query("select b.item.id as itemId, b.id as id, b.booker.id as bookerId, b.start as start, b.end as end " +
+            "from Booking b where b.item.id in ?1 and b.status = 'APPROVED'")
+    List<BookingInterval> findApprovedIntervals(Collection<Long> itemIds);
+
+    @EntityGraph(attributePaths = "item")
+    @Query("select b from Booking b " +
+            "where b.id = ?1 and (b.booker.id = ?2 or b.item.owner = ?2)")
+    Optional<Booking> findBookingByBookerOrOwner(Long bookingId, Long userId);
 
-    @Query(value = "select * from bookings b " +
-            "join items i on i.id = b.item_id " +
-            "where status like ?2 and booker_id = ?1 " +
-            "order by b.start_date", nativeQuery = true)
-    List<Booking> findAllByBooker_IdAndStatus(Long userId, String status, Pageable pageable);
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("select b from Booking b join fetch b.item " +
+            "where b.booker.id = ?1 order by b.start desc, b.id desc")
+    Stream<Booking> streamAllByBooker_Id(Long userId);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("select b from Booking b join fetch b.item i " +
+            "where i.owner = ?1 order by b.start desc, b.id desc")
+    Stream<Booking> streamAllByItem_Owner(Long ownerId);
+
+    @EntityGraph(attributePaths = "item")
+    List<Booking> findAllByBooker_IdOrderByStartDescIdDesc(Long userId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "item")
+    @Query("select b from Booking b " +
+            "where b.booker.id = ?1 and (?2 between b.start and b.end) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllByBooker_IdAndStatusCurrent(Long userId, LocalDateTime localDateTime, Pageable pageable);
 
-    List<Booking> findAllByItem_OwnerOrderByStartDesc(Long ownerId, Pageable pageable);
+    @EntityGraph(attributePaths = "item")
+    List<Booking> findAllByBooker_IdAndStartIsAfterOrderByStartDescIdDesc(Long userId, LocalDateTime localDateTime, Pageable pageable);
 
-    @Query(value = "select * from bookings b " +
-            "join items i on i.id = b.item_id " +
-            "where i.owner_id = ?1 and (?2 between start_date and end_date) " +
-            "order by b.start_date desc", nativeQuery = true)
-    List<Booking> findAllByItem_OwnerAndStatusCurrent(Long ownerId, LocalDateTime localDateTime, Pageable pageable);
+    @EntityGraph(attributePaths = "item")
+    List<Booking> findAllByBooker_IdAndEndIsBeforeOrderByStartDescIdDesc(Long userId, LocalDateTime localDateTime, Pageable pageable);
 
-    List<Booking> findAllByItem_OwnerAndEndIsBeforeOrderByStartDesc(Long ownerId, LocalDateTime localDateTime, Pageable pageable);
+    @EntityGraph(attributePaths = "booker")
+    @Query("select b from Booking b " +
+            "where b.booker.id = ?1 and b.item.id = ?2 and ?3 > b.end " +
+            "order by b.start desc")
+    List<Booking> findAllByBooker_IdAndEndIsBeforeOrderByStartDesc(Long userId, Long itemId, LocalDateTime localDateTime);
 
-    List<Booking> findAllByItem_OwnerAndStartIsAfterOrderByStartDesc(Long ownerId, LocalDateTime localDateTime, Pageable pageable);
+    @EntityGraph(attributePaths = "item")
+    @Query("select b from Booking b " +
+            "where b.status = ?2 and b.booker.id = ?1 " +
+            "order by b.start, b.id")
+    List<Booking> findAllByBooker_IdAndStatus(Long userId, Status status, Pageable pageable);
 
-    @Query(value = "select * from bookings b " +
-            "join items i on i.id = b.item_id " +
-            "where status like ?2 and owner_id = ?1 " +
-            "order by b.start_date", nativeQuery = true)
-    List<Booking> findAllByItem_OwnerAndState(Long ownerId, String state, Pageable pageable);
+    @EntityGraph(attributePaths = "item")
+    List<Booking> findAllByItem_OwnerOrderByStartDescIdDesc(Long ownerId, Pageable pageable);
 
-    Optional<Booking> findFirstByItem_IdAndStartIsBefore(Long itemId, LocalDateTime now, Sort sort);
+    @EntityGraph(attributePaths = "item")
+    @Query("select b from Booking b " +
+            "where b.item.owner = ?1 and (?2 between b.start and b.end) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllByItem_OwnerAndStatusCurrent(Long ownerId, LocalDateTime localDateTime, Pageable pageable);
 
-    Optional<Booking> findFirstByItem_IdAndStartIsAfter(Long itemId, LocalDateTime now, Sort sort);
+    @EntityGraph(attributePaths = "item")
+    List<Booking> findAllByItem_OwnerAndEndIsBeforeOrderByStartDescIdDesc(Long ownerId, LocalDateTime localDateTime, Pageable pageable);
+
+    @EntityGraph(attributePaths = "item")
+    List<Booking> findAllByItem_OwnerAndStartIsAfterOrderByStartDescIdDesc(Long ownerId, LocalDateTime localDateTime, Pageable pageable);
+
+    @EntityGraph(attributePaths = "item")
+    @Query("select b from Booking b " +
+            "where b.status = ?2 and b.item.owner = ?1 " +
+            "order by b.start, b.id")
+    List<Booking> findAllByItem_OwnerAndState(Long ownerId, Status status, Pageable pageable);
+
+    /**
+     * Keyset pages. The bound on {@code b.start} alone repeats the cursor condition so that the database seeks to
+     * the cursor in the start_date index instead of filtering every earlier row; the owner's pages reach the
+     * bookings through the items of the owner and the (item_id, start_date) indexes.
+     */
+    @EntityGraph(attributePaths = "item")
+    @Query("select b from Booking b where b.booker.id = ?1 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findPageOfBooker(Long userId, LocalDateTime start, Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "item")
+    @Query("select b from Booking b where b.booker.id = ?1 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "and ?4 between b.start and b.end " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findCurrentPageOfBooker(Long userId, LocalDateTime start, Long id, LocalDateTime now, Pageable pageable);
+
+    @EntityGraph(attributePaths = "item")
+    @Query("select b from Booking b where b.booker.id = ?1 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "and b.end < ?4 " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findPastPageOfBooker(Long userId, LocalDateTime start, Long id, LocalDateTime now, Pageable pageable);
+
+    @EntityGraph(attributePaths = "item")
+    @Query("select b from Booking b where b.booker.id = ?1 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "and b.start > ?4 " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findFuturePageOfBooker(Long userId, LocalDateTime start, Long id, LocalDateTime now, Pageable pageable);
+
+    @EntityGraph(attributePaths = "item")
+    @Query("select b from Booking b where b.booker.id = ?1 " +
+            "and b.status = ?4 " +
+            "and b.start >= ?2 and (b.start > ?2 or (b.start = ?2 and b.id > ?3)) " +
+            "order by b.start, b.id")
+    List<Booking> findPageOfBookerByStatus(Long userId, LocalDateTime start, Long id, Status status, Pageable pageable);
+
+    @Query("select b from Booking b join fetch b.item i where i.owner = ?1 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findPageOfOwner(Long ownerId, LocalDateTime start, Long id, Pageable pageable);
+
+    @Query("select b from Booking b join fetch b.item i where i.owner = ?1 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "and ?4 between b.start and b.end " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findCurrentPageOfOwner(Long ownerId, LocalDateTime start, Long id, LocalDateTime now, Pageable pageable);
+
+    @Query("select b from Booking b join fetch b.item i where i.owner = ?1 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "and b.end < ?4 " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findPastPageOfOwner(Long ownerId, LocalDateTime start, Long id, LocalDateTime now, Pageable pageable);
+
+    @Query("select b from Booking b join fetch b.item i where i.owner = ?1 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "and b.start > ?4 " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findFuturePageOfOwner(Long ownerId, LocalDateTime start, Long id, LocalDateTime now, Pageable pageable);
+
+    @Query("select b from Booking b join fetch b.item i where i.owner = ?1 " +
+            "and b.status = ?4 " +
+            "and b.start >= ?2 and (b.start > ?2 or (b.start = ?2 and b.id > ?3)) " +
+            "order by b.start, b.id")
+    List<Booking> findPageOfOwnerByStatus(Long ownerId, LocalDateTime start, Long id, Status status, Pageable pageable);
+
+    /**
+     * Per item of the owner with an id from {@code firstItemId} to {@code lastItemId}, that is per item of a page
+     * of the owner's items, the approved booking that ended last before {@code now} and the approved booking
+     * that starts first after it. Bookings in progress are neither. A range rather than a list of ids, which
+     * H2 checks row by row and so slows down with every item on the page.
+     */
+    @Query(value = "select b.item_id as itemId, b.id as id, b.booker_id as bookerId, b.is_last as isLast " +
+            "from (select bk.item_id, bk.id, bk.booker_id, bk.end_date < ?4 as is_last, " +
+            "row_number() over (partition by bk.item_id, bk.end_date < ?4 " +
+            "order by case when bk.end_date < ?4 then bk.end_date end desc, bk.start_date) as rn " +
+            "from bookings bk join items i on i.id = bk.item_id " +
+            "where i.owner_id = ?1 and i.id between ?2 and ?3 and bk.status = 'APPROVED' " +
+            "and (bk.end_date < ?4 or bk.start_date > ?4)) b " +
+            "where b.rn = 1", nativeQuery = true)
+    List<BookingShort> findLastAndNextBookings(Long ownerId, Long firstItemId, Long lastItemId, LocalDateTime now);
 
 }
@@ -0,0 +1,257 @@
+package ru.practicum.shareit.booking.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingShort;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of approved bookings, kept per item as intervals sorted by start.
+ * Items are loaded lazily from {@link BookingRepository} and patched after every committed approval or rejection.
+ * <p>
+ * The index holds at most {@code shareit.booking-index-max-intervals} intervals (an item without bookings counts
+ * as one). An interval takes about 200 bytes of heap, so the default of 200 000 is a budget of roughly 40 MB.
+ * Items over the budget are evicted by the Caffeine size policy and loaded again on their next request.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking-index", havingValue = "memory")
+public class BookingIntervalIndex {
+
+    private final BookingRepository bookingRepository;
+
+    private final Map<Long, ItemIntervals> items;
+    private final AtomicLong writes = new AtomicLong();
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking-index-max-intervals}") long maxIntervals) {
+        this.bookingRepository = bookingRepository;
+        this.items = Caffeine.newBuilder()
+                .maximumWeight(maxIntervals)
+                .<Long, ItemIntervals>weigher((itemId, intervals) -> Math.max(intervals.intervals.length, 1))
+                .build()
+                .asMap();
+    }
+
+    public boolean isBooked(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return intervals(List.of(itemId)).get(itemId).overlaps(start, end);
+    }
+
+    /**
+     * Same rules as {@link BookingRepository#findLastAndNextBookings}.
+     */
+    public List<BookingShort> findLastAndNextBookings(Collection<Long> itemIds, LocalDateTime now) {
+
+        List<BookingShort> result = new ArrayList<>();
+        intervals(itemIds).forEach((itemId, intervals) -> {
+            Interval last = intervals.lastEnded(now);
+            if (last != null) {
+                result.add(new LastOrNext(itemId, last.id, last.bookerId, true));
+            }
+            Interval next = intervals.nextStarting(now);
+            if (next != null) {
+                result.add(new LastOrNext(itemId, next.id, next.bookerId, false));
+            }
+        });
+        return result;
+    }
+
+    public void approved(Booking booking) {
+        Interval interval = new Interval(booking.getId(), booking.getBooker().getId(), booking.getStart(), booking.getEnd());
+        afterCommit(booking.getItem().getId(), intervals -> intervals.with(interval));
+    }
+
+    public void rejected(Booking booking) {
+        afterCommit(booking.getItem().getId(), intervals -> intervals.without(booking.getId()));
+    }
+
+    private void afterCommit(Long itemId, UnaryOperator<ItemIntervals> patch) {
+
+        Runnable apply = () -> {
+            writes.incrementAndGet();
+            items.computeIfPresent(itemId, (id, intervals) -> patch.apply(intervals));
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private Map<Long, ItemIntervals> intervals(Collection<Long> itemIds) {
+
+        Map<Long, ItemIntervals> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            ItemIntervals intervals = items.get(itemId);
+            if (intervals != null) {
+                result.put(itemId, intervals);
+            } else {
+                missing.add(itemId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long writesBeforeLoad = writes.get();
+
+        Map<Long, List<Interval>> loaded = bookingRepository.findApprovedIntervals(missing).stream()
+                .collect(Collectors.groupingBy(BookingInterval::getItemId,
+                        Collectors.mapping(Interval::new, Collectors.toList())));
+
+        for (Long itemId : missing) {
+            ItemIntervals intervals = ItemIntervals.of(loaded.getOrDefault(itemId, List.of()));
+            ItemIntervals present = items.putIfAbsent(itemId, intervals);
+            result.put(itemId, present == null ? intervals : present);
+        }
+
+        // A patch that ran while we were loading may have found nothing to patch, or patched a snapshot
+        // read before its commit. Such entries are dropped and will be loaded again on the next request.
+        if (writes.get() != writesBeforeLoad) {
+            missing.forEach(items::remove);
+        }
+        return result;
+    }
+
+    private static final class Interval {
+
+        private final long id;
+        private final long bookerId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private Interval(long id, long bookerId, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.bookerId = bookerId;
+            this.start = start;
+            this.end = end;
+        }
+
+        private Interval(BookingInterval booking) {
+            this(booking.getId(), booking.getBookerId(), booking.getStart(), booking.getEnd());
+        }
+    }
+
+    /**
+     * Immutable, sorted by start and id. {@code maxEnd[i]} is the latest end among the first {@code i + 1}
+     * intervals, which lets an overlap search stop as soon as nothing to the left can reach the queried start.
+     */
+    private static final class ItemIntervals {
+
+        private static final Comparator<Interval> ORDER = Comparator
+                .comparing((Interval interval) -> interval.start)
+                .thenComparingLong(interval -> interval.id);
+
+        private final Interval[] intervals;
+        private final LocalDateTime[] maxEnd;
+
+        private ItemIntervals(Interval[] intervals) {
+            this.intervals = intervals;
+            this.maxEnd = new LocalDateTime[intervals.length];
+            for (int i = 0; i < intervals.length; i++) {
+                LocalDateTime end = intervals[i].end;
+                maxEnd[i] = i == 0 || end.isAfter(maxEnd[i - 1]) ? end : maxEnd[i - 1];
+            }
+        }
+
+        private static ItemIntervals of(Collection<Interval> intervals) {
+            Interval[] sorted = intervals.toArray(new Interval[0]);
+            Arrays.sort(sorted, ORDER);
+            return new ItemIntervals(sorted);
+        }
+
+        private boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            for (int i = countStartingBefore(end) - 1; i >= 0 && maxEnd[i].isAfter(start); i--) {
+                if (intervals[i].end.isAfter(start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * The interval that ended last before {@code now}. Scans back from the last one started before {@code now}
+         * and stops once no interval further left ends later than the best one found.
+         */
+        private Interval lastEnded(LocalDateTime now) {
+            Interval last = null;
+            for (int i = countStartingBefore(now) - 1; i >= 0 && (last == null || maxEnd[i].isAfter(last.end)); i--) {
+                if (intervals[i].end.isBefore(now) && (last == null || intervals[i].end.isAfter(last.end))) {
+                    last = intervals[i];
+                }
+            }
+            return last;
+        }
+
+        private Interval nextStarting(LocalDateTime now) {
+            for (int i = countStartingBefore(now); i < intervals.length; i++) {
+                if (intervals[i].start.isAfter(now)) {
+                    return intervals[i];
+                }
+            }
+            return null;
+        }
+
+        private ItemIntervals with(Interval interval) {
+            List<Interval> copy = withoutId(interval.id);
+            copy.add(interval);
+            return of(copy);
+        }
+
+        private ItemIntervals without(long id) {
+            return of(withoutId(id));
+        }
+
+        private List<Interval> withoutId(long id) {
+            List<Interval> copy = new ArrayList<>(intervals.length + 1);
+            for (Interval interval : intervals) {
+                if (interval.id != id) {
+                    copy.add(interval);
+                }
+            }
+            return copy;
+        }
+
+        private int countStartingBefore(LocalDateTime time) {
+            int low = 0;
+            int high = intervals.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (intervals[mid].start.isBefore(time)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    @Data
+    private static class LastOrNext implements BookingShort {
+
+        private final Long itemId;
+        private final Long id;
+        private final Long bookerId;
+        private final Boolean isLast;
+    }
+}
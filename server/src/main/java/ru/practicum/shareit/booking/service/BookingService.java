@@ -1,8 +1,13 @@
 package ru.practicum.shareit.booking.service;
 
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface BookingService {
@@ -11,9 +16,21 @@ public interface BookingService {
 
     BookingDto setApproval(Long bookingId, Long userId, Boolean approved);
 
+    List<BookingBatchResult> createBookings(Long userId, List<BookingDto> bookingDtos);
+
+    List<BookingBatchResult> setApprovals(Long userId, List<BookingApprovalDto> approvals);
+
     BookingDto findBookingById(Long bookingId, Long userId);
 
     List<BookingDto> findBookingsOfUser(Long userId, String state, Pageable pageable);
 
     List<BookingDto> findBookingsOfOwner(Long ownerId, String state, Pageable pageable);
+
+    List<BookingDto> findBookingsOfUser(Long userId, String state, BookingCursor after, int size);
+
+    List<BookingDto> findBookingsOfOwner(Long ownerId, String state, BookingCursor after, int size);
+
+    void exportBookingsOfUser(Long userId, OutputStream out) throws IOException;
+
+    void exportBookingsOfOwner(Long ownerId, OutputStream out) throws IOException;
 }
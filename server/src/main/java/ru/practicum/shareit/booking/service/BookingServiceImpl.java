@@ -1,78 +1,221 @@
 package ru.practicum.shareit.booking.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.State;
 import ru.practicum.shareit.booking.Status;
-import ru.practicum.shareit.booking.dto.BookingDto;
-import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.*;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.metrics.MetricsConfig;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class BookingServiceImpl implements BookingService {
 
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ObjectProvider<BookingIntervalIndex> bookingIndex;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
 
+    @Value("${shareit.booking.batch-max-size}")
+    private int batchMaxSize;
 
     @Override
+    @Transactional
     public BookingDto createBooking(Long userId, BookingDto bookingDto) {
 
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("Пользователь под номером " + userId + " не найден."));
 
-        Item item = itemRepository.findById(bookingDto.getItemId())
+        Item item = itemRepository.findByIdForUpdate(bookingDto.getItemId())
                 .orElseThrow(() -> new ItemNotFoundException("Предмет под номером " + bookingDto.getItemId() + " не найден."));
 
         Booking booking = BookingMapper.toBooking(bookingDto);
         booking.setBooker(user);
         booking.setItem(item);
 
-        if (item.getOwner().equals(userId)) {
-            throw new UserOwnItemException("Пользователь не может арендовать свою вещь");
-        }
-        if (!item.getAvailable()) {
-            throw new ItemNotAvailableException("Вещь не доступна для аренды");
-        }
-        if (booking.getEnd().isBefore(booking.getStart())) {
-            throw new InvalidDataException("Время начала брони должно быть раньше окончания брони.");
+        validateBooking(booking, userId);
+
+        BookingIntervalIndex index = bookingIndex.getIfAvailable();
+        if (index != null && index.isBooked(item.getId(), booking.getStart(), booking.getEnd())) {
+            throw new BookingOverlapException("Вещь уже забронирована на это время.");
         }
+        checkOverlap(booking);
 
         return BookingMapper.toBookingDto(bookingRepository.save(booking));
     }
 
     @Override
+    @Transactional
     public BookingDto setApproval(Long bookingId, Long userId, Boolean approved) {
 
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findWithItemById(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException("Бронь не найдена."));
 
-        if (!booking.getBooker().getId().equals(userId)) {
-            if (approved && !booking.getStatus().equals(Status.APPROVED)) {
-                booking.setStatus(Status.APPROVED);
-            } else if (!approved && !booking.getStatus().equals(Status.REJECTED)) {
-                booking.setStatus(Status.REJECTED);
-            } else {
-                throw new InvalidDataException("Бронь уже подтверждена.");
+        checkOwner(booking, userId);
+        if (approved) {
+            itemRepository.findByIdForUpdate(booking.getItem().getId());
+        }
+        changeStatus(booking, approved, this::checkOverlap);
+
+        Booking savedBooking = bookingRepository.save(booking);
+        updateIndex(savedBooking);
+
+        return BookingMapper.toBookingDto(savedBooking);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingBatchResult> createBookings(Long userId, List<BookingDto> bookingDtos) {
+
+        checkBatchSize(bookingDtos.size());
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("Пользователь под номером " + userId + " не найден."));
+
+        Map<Long, Item> items = itemRepository.findAllByIdForUpdate(bookingDtos.stream()
+                        .map(BookingDto::getItemId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        Map<Long, List<Booking>> approvedBookings = findApprovedBookings(items.keySet(),
+                bookingDtos.stream().map(BookingDto::getStart));
+
+        List<BookingBatchResult> results = new ArrayList<>(bookingDtos.size());
+        List<BookingBatchResult> createdResults = new ArrayList<>();
+        List<Booking> created = new ArrayList<>();
+
+        for (BookingDto bookingDto : bookingDtos) {
+            BookingBatchResult result = new BookingBatchResult(bookingDto.getItemId(), null, null, null);
+            results.add(result);
+            try {
+                Item item = items.get(bookingDto.getItemId());
+                if (item == null) {
+                    throw new ItemNotFoundException("Предмет под номером " + bookingDto.getItemId() + " не найден.");
+                }
+
+                Booking booking = BookingMapper.toBooking(bookingDto);
+                booking.setBooker(user);
+                booking.setItem(item);
+
+                validateBooking(booking, userId);
+                checkOverlap(booking, approvedBookings);
+
+                createdResults.add(result);
+                created.add(booking);
+            } catch (RuntimeException e) {
+                result.setError(e.getMessage());
+            }
+        }
+
+        bookingRepository.saveAll(created);
+        for (int i = 0; i < created.size(); i++) {
+            createdResults.get(i).setBookingId(created.get(i).getId());
+            createdResults.get(i).setBooking(BookingMapper.toBookingDto(created.get(i)));
+        }
+
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<BookingBatchResult> setApprovals(Long userId, List<BookingApprovalDto> approvals) {
+
+        checkBatchSize(approvals.size());
+
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemByIdIn(approvals.stream()
+                        .map(BookingApprovalDto::getBookingId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<Booking> approving = approvals.stream()
+                .filter(approval -> Boolean.TRUE.equals(approval.getApproved()))
+                .map(approval -> bookings.get(approval.getBookingId()))
+                .filter(booking -> booking != null && booking.getItem().getOwner().equals(userId))
+                .collect(Collectors.toList());
+        Set<Long> itemIds = approving.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+        itemRepository.findAllByIdForUpdate(itemIds);
+
+        Map<Long, List<Booking>> approvedBookings = findApprovedBookings(itemIds,
+                approving.stream().map(Booking::getStart));
+
+        List<BookingBatchResult> results = new ArrayList<>(approvals.size());
+        List<BookingBatchResult> changedResults = new ArrayList<>();
+        List<Booking> changed = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+
+        for (BookingApprovalDto approval : approvals) {
+            BookingBatchResult result = new BookingBatchResult(null, approval.getBookingId(), null, null);
+            results.add(result);
+            try {
+                Booking booking = bookings.get(approval.getBookingId());
+                if (booking == null || approval.getApproved() == null) {
+                    throw new BookingNotFoundException("Бронь не найдена.");
+                }
+                result.setItemId(booking.getItem().getId());
+                if (!seen.add(booking.getId())) {
+                    throw new InvalidDataException("Бронь указана в пакете несколько раз.");
+                }
+                checkOwner(booking, userId);
+
+                changeStatus(booking, approval.getApproved(), b -> checkOverlap(b, approvedBookings));
+                if (booking.getStatus() == Status.APPROVED) {
+                    approvedBookings.computeIfAbsent(booking.getItem().getId(), id -> new ArrayList<>()).add(booking);
+                } else {
+                    approvedBookings.getOrDefault(booking.getItem().getId(), new ArrayList<>())
+                            .removeIf(other -> other.getId().equals(booking.getId()));
+                }
+
+                changedResults.add(result);
+                changed.add(booking);
+            } catch (RuntimeException e) {
+                result.setError(e.getMessage());
             }
-            return BookingMapper.toBookingDto(bookingRepository.save(booking));
-        } else {
-            throw new BookingNotFoundException("Только владелец может менять статус брони.");
         }
+
+        bookingRepository.saveAll(changed);
+        for (int i = 0; i < changed.size(); i++) {
+            updateIndex(changed.get(i));
+            changedResults.get(i).setBooking(BookingMapper.toBookingDto(changed.get(i)));
+        }
+
+        return results;
     }
 
     @Override
@@ -90,7 +233,7 @@ public class BookingServiceImpl implements BookingService {
 
         switch (State.valueOf(state)) {
             case ALL:
-                return bookingRepository.findAllByBooker_IdOrderByStartDesc(userId, pageable)
+                return bookingRepository.findAllByBooker_IdOrderByStartDescIdDesc(userId, pageable)
                         .stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
             case CURRENT:
@@ -98,19 +241,19 @@ public class BookingServiceImpl implements BookingService {
                         .stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
             case PAST:
-                return bookingRepository.findAllByBooker_IdAndEndIsBeforeOrderByStartDesc(userId, LocalDateTime.now(), pageable)
+                return bookingRepository.findAllByBooker_IdAndEndIsBeforeOrderByStartDescIdDesc(userId, LocalDateTime.now(), pageable)
                         .stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
             case FUTURE:
-                return bookingRepository.findAllByBooker_IdAndStartIsAfterOrderByStartDesc(userId, LocalDateTime.now(), pageable)
+                return bookingRepository.findAllByBooker_IdAndStartIsAfterOrderByStartDescIdDesc(userId, LocalDateTime.now(), pageable)
                         .stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
             case WAITING:
-                return bookingRepository.findAllByBooker_IdAndStatus(userId, Status.WAITING.toString(), pageable)
+                return bookingRepository.findAllByBooker_IdAndStatus(userId, Status.WAITING, pageable)
                         .stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
             case REJECTED:
-                return bookingRepository.findAllByBooker_IdAndStatus(userId, Status.REJECTED.toString(), pageable)
+                return bookingRepository.findAllByBooker_IdAndStatus(userId, Status.REJECTED, pageable)
                         .stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
             default:
                 throw new InvalidDataException("Unknown state: UNSUPPORTED_STATUS");
@@ -126,7 +269,7 @@ public class BookingServiceImpl implements BookingService {
 
         switch (State.valueOf(state)) {
             case ALL:
-                return bookingRepository.findAllByItem_OwnerOrderByStartDesc(ownerId, pageable)
+                return bookingRepository.findAllByItem_OwnerOrderByStartDescIdDesc(ownerId, pageable)
                         .stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
             case CURRENT:
@@ -134,19 +277,19 @@ public class BookingServiceImpl implements BookingService {
                         .stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
             case PAST:
-                return bookingRepository.findAllByItem_OwnerAndEndIsBeforeOrderByStartDesc(ownerId, LocalDateTime.now(), pageable)
+                return bookingRepository.findAllByItem_OwnerAndEndIsBeforeOrderByStartDescIdDesc(ownerId, LocalDateTime.now(), pageable)
                         .stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
             case FUTURE:
-                return bookingRepository.findAllByItem_OwnerAndStartIsAfterOrderByStartDesc(ownerId, LocalDateTime.now(), pageable)
+                return bookingRepository.findAllByItem_OwnerAndStartIsAfterOrderByStartDescIdDesc(ownerId, LocalDateTime.now(), pageable)
                         .stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
             case WAITING:
-                return bookingRepository.findAllByItem_OwnerAndState(ownerId, State.WAITING.toString(), pageable)
+                return bookingRepository.findAllByItem_OwnerAndState(ownerId, Status.WAITING, pageable)
                         .stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
             case REJECTED:
-                return bookingRepository.findAllByItem_OwnerAndState(ownerId, State.REJECTED.toString(), pageable)
+                return bookingRepository.findAllByItem_OwnerAndState(ownerId, Status.REJECTED, pageable)
                         .stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
 
             case UNSUPPORTED_STATUS:
@@ -156,4 +299,216 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    @Override
+    public List<BookingDto> findBookingsOfUser(Long userId, String state, BookingCursor after, int size) {
+
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("Пользователь под номером " + userId + " не найден.");
+        }
+
+        LocalDateTime start = after.getStart();
+        Long id = after.getId();
+        Pageable page = PageRequest.of(0, size);
+        List<Booking> bookings;
+
+        switch (State.valueOf(state)) {
+            case ALL:
+                bookings = bookingRepository.findPageOfBooker(userId, start, id, page);
+                break;
+            case CURRENT:
+                bookings = bookingRepository.findCurrentPageOfBooker(userId, start, id, LocalDateTime.now(), page);
+                break;
+            case PAST:
+                bookings = bookingRepository.findPastPageOfBooker(userId, start, id, LocalDateTime.now(), page);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findFuturePageOfBooker(userId, start, id, LocalDateTime.now(), page);
+                break;
+            case WAITING:
+                bookings = bookingRepository.findPageOfBookerByStatus(userId, start, id, Status.WAITING, page);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.findPageOfBookerByStatus(userId, start, id, Status.REJECTED, page);
+                break;
+            default:
+                throw new InvalidDataException("Unknown state: UNSUPPORTED_STATUS");
+        }
+
+        return bookings.stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<BookingDto> findBookingsOfOwner(Long ownerId, String state, BookingCursor after, int size) {
+
+        if (!userRepository.existsById(ownerId)) {
+            throw new UserNotFoundException("Пользователь под номером " + ownerId + " не найден.");
+        }
+
+        LocalDateTime start = after.getStart();
+        Long id = after.getId();
+        Pageable page = PageRequest.of(0, size);
+        List<Booking> bookings;
+
+        switch (State.valueOf(state)) {
+            case ALL:
+                bookings = bookingRepository.findPageOfOwner(ownerId, start, id, page);
+                break;
+            case CURRENT:
+                bookings = bookingRepository.findCurrentPageOfOwner(ownerId, start, id, LocalDateTime.now(), page);
+                break;
+            case PAST:
+                bookings = bookingRepository.findPastPageOfOwner(ownerId, start, id, LocalDateTime.now(), page);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findFuturePageOfOwner(ownerId, start, id, LocalDateTime.now(), page);
+                break;
+            case WAITING:
+                bookings = bookingRepository.findPageOfOwnerByStatus(ownerId, start, id, Status.WAITING, page);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.findPageOfOwnerByStatus(ownerId, start, id, Status.REJECTED, page);
+                break;
+            case UNSUPPORTED_STATUS:
+                throw new InvalidDataException("Unknown state: UNSUPPORTED_STATUS");
+            default:
+                return Collections.emptyList();
+        }
+
+        return bookings.stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
+    }
+
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBookingsOfUser(Long userId, OutputStream out) throws IOException {
+
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("Пользователь под номером " + userId + " не найден.");
+        }
+
+        try (Stream<Booking> bookings = bookingRepository.streamAllByBooker_Id(userId)) {
+            writeNdjson(bookings, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBookingsOfOwner(Long ownerId, OutputStream out) throws IOException {
+
+        if (!userRepository.existsById(ownerId)) {
+            throw new UserNotFoundException("Пользователь под номером " + ownerId + " не найден.");
+        }
+
+        try (Stream<Booking> bookings = bookingRepository.streamAllByItem_Owner(ownerId)) {
+            writeNdjson(bookings, out);
+        }
+    }
+
+    /**
+     * Writes one JSON object per line. The persistence context is cleared after every fetched chunk,
+     * so memory use does not grow with the number of exported bookings.
+     */
+    private void writeNdjson(Stream<Booking> bookings, OutputStream out) throws IOException {
+
+        ObjectWriter writer = objectMapper.writerFor(BookingDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        int count = 0;
+        try (SequenceWriter sequence = writer.withRootValueSeparator("\n").writeValues(out)) {
+            for (Iterator<Booking> iterator = bookings.iterator(); iterator.hasNext(); ) {
+                sequence.write(BookingMapper.toBookingDto(iterator.next()));
+                if (++count % BookingRepository.STREAM_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        if (count > 0) {
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    private void validateBooking(Booking booking, Long userId) {
+
+        if (booking.getItem().getOwner().equals(userId)) {
+            throw new UserOwnItemException("Пользователь не может арендовать свою вещь");
+        }
+        if (!booking.getItem().getAvailable()) {
+            throw new ItemNotAvailableException("Вещь не доступна для аренды");
+        }
+        if (booking.getEnd().isBefore(booking.getStart())) {
+            throw new InvalidDataException("Время начала брони должно быть раньше окончания брони.");
+        }
+    }
+
+    private void checkOwner(Booking booking, Long userId) {
+        if (!booking.getItem().getOwner().equals(userId)) {
+            throw new BookingNotFoundException("Только владелец может менять статус брони.");
+        }
+    }
+
+    private void changeStatus(Booking booking, boolean approved, Consumer<Booking> overlapCheck) {
+
+        if (approved && !booking.getStatus().equals(Status.APPROVED)) {
+            overlapCheck.accept(booking);
+            booking.setStatus(Status.APPROVED);
+        } else if (!approved && !booking.getStatus().equals(Status.REJECTED)) {
+            booking.setStatus(Status.REJECTED);
+        } else {
+            throw new InvalidDataException("Бронь уже подтверждена.");
+        }
+    }
+
+    private void updateIndex(Booking booking) {
+        bookingIndex.ifAvailable(index -> {
+            if (booking.getStatus() == Status.APPROVED) {
+                index.approved(booking);
+            } else {
+                index.rejected(booking);
+            }
+        });
+    }
+
+    private void checkBatchSize(int size) {
+        if (size == 0 || size > batchMaxSize) {
+            throw new InvalidDataException("Размер пакета должен быть от 1 до " + batchMaxSize + ".");
+        }
+    }
+
+    /**
+     * Approved bookings of the given items that end after the earliest of the given starts,
+     * i.e. every approved booking a batch entry could overlap with.
+     */
+    private Map<Long, List<Booking>> findApprovedBookings(Collection<Long> itemIds, Stream<LocalDateTime> starts) {
+
+        if (itemIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        LocalDateTime earliestStart = starts.filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .orElseGet(LocalDateTime::now);
+
+        return bookingRepository.findApprovedEndingAfter(itemIds, earliestStart).stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId(),
+                        HashMap::new, Collectors.toCollection(ArrayList::new)));
+    }
+
+    /**
+     * Must be called with the item row locked by {@link ItemRepository#findByIdForUpdate}, so that
+     * concurrent bookings of the same item are checked one after another, while other items are not blocked.
+     */
+    private void checkOverlap(Booking booking) {
+        if (bookingRepository.existsApprovedOverlap(booking.getItem().getId(), booking.getStart(), booking.getEnd())) {
+            throw new BookingOverlapException("Вещь уже забронирована на это время.");
+        }
+    }
+
+    private void checkOverlap(Booking booking, Map<Long, List<Booking>> approvedBookings) {
+        boolean overlaps = approvedBookings.getOrDefault(booking.getItem().getId(), List.of()).stream()
+                .anyMatch(other -> other.getStart().isBefore(booking.getEnd()) && other.getEnd().isAfter(booking.getStart()));
+        if (overlaps) {
+            throw new BookingOverlapException("Вещь уже забронирована на это время.");
+        }
+    }
 }
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exception;
+
+public class TooManyExportsException extends RuntimeException {
+    public TooManyExportsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.item;
+
+public enum ImportFormat {
+    CSV,
+    NDJSON
+}
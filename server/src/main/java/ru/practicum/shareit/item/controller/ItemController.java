@@ -1,11 +1,16 @@
 package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.ImportFormat;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -21,6 +26,16 @@ public class ItemController {
         return itemService.addItem(itemDto, userId);
     }
 
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ItemImportResult importItemsCsv(@RequestHeader(USER_ID) Long userId, InputStream body) throws IOException {
+        return itemService.importItems(userId, ImportFormat.CSV, body);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ItemImportResult importItemsNdjson(@RequestHeader(USER_ID) Long userId, InputStream body) throws IOException {
+        return itemService.importItems(userId, ImportFormat.NDJSON, body);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto createComment(@RequestHeader(USER_ID) Long userId,
                                     @PathVariable Long itemId,
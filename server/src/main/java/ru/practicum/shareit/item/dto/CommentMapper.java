@@ -37,4 +37,14 @@ public class CommentMapper {
                 comment.getCreated()
         );
     }
+
+    public static ItemDto.Comment toItemComment(ItemPageRow row) {
+
+        return new ItemDto.Comment(
+                row.getId(),
+                row.getText(),
+                row.getAuthorName(),
+                row.getCreated()
+        );
+    }
 }
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ItemImportResult {
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private long imported;
+
+    private long failed;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    public void addError(long row, String error) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(row, error));
+        }
+    }
+
+    @Data
+    public static class RowError {
+
+        private final long row;
+
+        private final String error;
+    }
+}
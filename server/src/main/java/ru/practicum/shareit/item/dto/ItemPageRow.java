@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.dto;
+
+import ru.practicum.shareit.booking.dto.BookingShort;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of {@link ru.practicum.shareit.item.repository.CommentRepository#findCommentsAndLastAndNextBookings}:
+ * a comment of the item, with {@link #getIsLast()} {@code null}, or its last or next booking.
+ */
+public interface ItemPageRow extends BookingShort {
+
+    String getText();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+}
@@ -1,13 +1,46 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemPageRow;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
+    @EntityGraph(attributePaths = "author")
+    @Query("select c from Comment c where c.item.id = ?1")
     List<Comment> findByItemId(Long itemId);
 
-    List<Comment> findAllByItem_Owner(Long ownerId);
+    /**
+     * Comments of the owner's items with ids from {@code firstItemId} to {@code lastItemId}, see
+     * {@link ru.practicum.shareit.booking.repository.BookingRepository#findLastAndNextBookings}. The range is
+     * repeated on the comment so that the database can start from either table through an index.
+     */
+    @EntityGraph(attributePaths = "author")
+    @Query("select c from Comment c join c.item i " +
+            "where i.owner = ?1 and i.id between ?2 and ?3 and c.item.id between ?2 and ?3")
+    List<Comment> findAllByItem_OwnerAndItem_IdBetween(Long ownerId, Long firstItemId, Long lastItemId);
+
+    /**
+     * Comments of the item together with its last and next booking as shown on the item page, in any status:
+     * the earliest booking that started before {@code now} and the latest booking that starts after it.
+     * One query, so that the owner's item page needs no other besides the item.
+     */
+    @Query(value = "select c.item_id as itemId, c.id as id, cast(null as bigint) as bookerId, " +
+            "cast(null as boolean) as isLast, c.user_comment as text, u.name as authorName, c.created_time as created " +
+            "from comments c join users u on u.id = c.author_id " +
+            "where c.item_id = ?1 " +
+            "union all " +
+            "select b.item_id, b.id, b.booker_id, b.is_last, null, null, null " +
+            "from (select bk.item_id, bk.id, bk.booker_id, bk.start_date < ?2 as is_last, " +
+            "row_number() over (partition by bk.start_date < ?2 " +
+            "order by case when bk.start_date < ?2 then bk.start_date end, bk.start_date desc) as rn " +
+            "from bookings bk " +
+            "where bk.item_id = ?1 and bk.start_date <> ?2) b " +
+            "where b.rn = 1", nativeQuery = true)
+    List<ItemPageRow> findCommentsAndLastAndNextBookings(Long itemId, LocalDateTime now);
 }
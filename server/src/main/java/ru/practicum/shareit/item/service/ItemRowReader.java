@@ -0,0 +1,199 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import ru.practicum.shareit.exception.InvalidDataException;
+import ru.practicum.shareit.item.ImportFormat;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads items from an uploaded CSV or NDJSON stream, a chunk at a time.
+ * CSV input starts with a header naming the columns: name, description, available, requestId.
+ * A row that cannot be parsed is returned with an error instead of an item.
+ */
+class ItemRowReader implements Closeable {
+
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+    private static final String AVAILABLE = "available";
+    private static final String REQUEST_ID = "requestid";
+
+    private final ImportFormat format;
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+
+    private Map<String, Integer> columns;
+    private long rowNumber;
+
+    ItemRowReader(ImportFormat format, InputStream in, ObjectMapper objectMapper) {
+        this.format = format;
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+    }
+
+    List<Row> next(int size) throws IOException {
+
+        List<Row> rows = new ArrayList<>(size);
+        Row row;
+        while (rows.size() < size && (row = format == ImportFormat.CSV ? nextCsvRow() : nextJsonRow()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Row nextJsonRow() throws IOException {
+
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        rowNumber++;
+        try {
+            return new Row(rowNumber, objectMapper.readValue(line, ItemDto.class), null);
+        } catch (JsonProcessingException e) {
+            return new Row(rowNumber, null, "Неправильный формат строки: " + e.getOriginalMessage());
+        }
+    }
+
+    private Row nextCsvRow() throws IOException {
+
+        if (columns == null) {
+            List<String> header = readRecord();
+            if (header == null) {
+                return null;
+            }
+            columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(), i);
+            }
+            if (!columns.containsKey(NAME) || !columns.containsKey(DESCRIPTION) || !columns.containsKey(AVAILABLE)) {
+                throw new InvalidDataException("Заголовок файла должен содержать колонки name, description и available.");
+            }
+        }
+
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        rowNumber++;
+        try {
+            ItemDto itemDto = new ItemDto();
+            itemDto.setName(field(record, NAME));
+            itemDto.setDescription(field(record, DESCRIPTION));
+            itemDto.setAvailable(parseAvailable(field(record, AVAILABLE)));
+            itemDto.setRequestId(parseRequestId(field(record, REQUEST_ID)));
+            return new Row(rowNumber, itemDto, null);
+        } catch (InvalidDataException e) {
+            return new Row(rowNumber, null, e.getMessage());
+        }
+    }
+
+    private String field(List<String> record, String column) {
+        Integer index = columns.get(column);
+        return index != null && index < record.size() ? record.get(index) : null;
+    }
+
+    private static Boolean parseAvailable(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        if (value.trim().equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (value.trim().equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw new InvalidDataException("Неправильное значение available: " + value);
+    }
+
+    private static Long parseRequestId(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidDataException("Неправильный номер запроса: " + value);
+        }
+    }
+
+    /**
+     * Reads one RFC 4180 record: fields are separated by commas, may be quoted,
+     * and a quoted field may contain commas, line breaks and doubled quotes.
+     */
+    private List<String> readRecord() throws IOException {
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean empty = true;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            empty = false;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+
+        if (empty) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Data
+    static class Row {
+
+        private final long number;
+
+        private final ItemDto item;
+
+        private final String error;
+    }
+}
@@ -0,0 +1,209 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory trigram index over item names and descriptions.
+ * Answers the same substring search as {@link ItemRepository#searchItems} without going to the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.item-search.index", havingValue = "memory")
+public class ItemSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+
+    private final Map<String, LongPostingList> postings = new HashMap<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void load() {
+
+        Pageable page = PageRequest.of(0, LOAD_BATCH_SIZE, Sort.by("id"));
+        Page<Item> items;
+        do {
+            items = itemRepository.findAll(page);
+            items.forEach(this::put);
+            page = items.nextPageable();
+        } while (items.hasNext());
+
+        log.info("Item search index built: {} items, {} trigrams", entries.size(), postings.size());
+    }
+
+    public void put(Item item) {
+
+        Entry entry = new Entry(item);
+
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(entry.id, entry);
+            if (previous != null) {
+                unindex(previous);
+            }
+            for (String gram : entry.grams()) {
+                postings.computeIfAbsent(gram, g -> new LongPostingList()).add(entry.id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the item from the index. Inside a transaction the item is dropped once the transaction commits,
+     * so a rolled back delete leaves it searchable.
+     */
+    public void remove(long itemId) {
+
+        Runnable apply = () -> {
+            lock.writeLock().lock();
+            try {
+                Entry previous = entries.remove(itemId);
+                if (previous != null) {
+                    unindex(previous);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private void unindex(Entry entry) {
+        for (String gram : entry.grams()) {
+            LongPostingList list = postings.get(gram);
+            list.remove(entry.id);
+            if (list.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    public List<ItemDto> search(String text, int from, int size) {
+
+        String query = text.toUpperCase();
+        List<Entry> byName = new ArrayList<>();
+        List<Entry> byDescription = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (long id : candidates(query)) {
+                Entry entry = entries.get(id);
+                if (!entry.available) {
+                    continue;
+                }
+                if (entry.upperName.contains(query)) {
+                    byName.add(entry);
+                } else if (entry.upperDescription.contains(query)) {
+                    byDescription.add(entry);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        byName.addAll(byDescription);
+
+        return byName.stream()
+                .skip((long) from * size)
+                .limit(size)
+                .map(Entry::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    private long[] candidates(String query) {
+
+        Set<String> grams = grams(query);
+        if (grams.isEmpty()) {
+            return entries.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+
+        List<LongPostingList> lists = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            LongPostingList list = postings.get(gram);
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(LongPostingList::size));
+
+        long[] result = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = lists.get(i).retain(result);
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String upperText) {
+
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= upperText.length(); i++) {
+            grams.add(upperText.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static final class Entry {
+
+        private final long id;
+        private final String name;
+        private final String description;
+        private final String upperName;
+        private final String upperDescription;
+        private final boolean available;
+        private final long requestId;
+
+        private Entry(Item item) {
+            this.id = item.getId();
+            this.name = item.getName();
+            this.description = item.getDescription();
+            this.upperName = name == null ? "" : name.toUpperCase();
+            this.upperDescription = description == null ? "" : description.toUpperCase();
+            this.available = Boolean.TRUE.equals(item.getAvailable());
+            this.requestId = item.getRequest() != null ? item.getRequest().getId() : 0;
+        }
+
+        private Set<String> grams() {
+            Set<String> grams = ItemSearchIndex.grams(upperName);
+            grams.addAll(ItemSearchIndex.grams(upperDescription));
+            return grams;
+        }
+
+        private ItemDto toItemDto() {
+            return new ItemDto(id, name, description, available, requestId);
+        }
+    }
+}
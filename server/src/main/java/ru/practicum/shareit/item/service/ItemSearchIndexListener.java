@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.PostRemove;
+
+/**
+ * Drops deleted items from {@link ItemSearchIndex}, whichever repository call deletes them.
+ * Created by Hibernate through the Spring bean container.
+ */
+public class ItemSearchIndexListener {
+
+    private final ObjectProvider<ItemSearchIndex> searchIndex;
+
+    public ItemSearchIndexListener(ObjectProvider<ItemSearchIndex> searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostRemove
+    void removed(Item item) {
+        searchIndex.ifAvailable(index -> index.remove(item.getId()));
+    }
+}
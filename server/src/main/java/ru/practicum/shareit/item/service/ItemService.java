@@ -1,8 +1,12 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.ImportFormat;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 public interface ItemService {
@@ -18,4 +22,6 @@ public interface ItemService {
     List<ItemDto> searchItems(String text, int from, int size);
 
     CommentDto createComment(Long userId, Long itemId, CommentDto commentDto);
+
+    ItemImportResult importItems(Long userId, ImportFormat format, InputStream in) throws IOException;
 }
@@ -1,30 +1,47 @@
 package ru.practicum.shareit.item.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.Status;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingShort;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exception.*;
+import ru.practicum.shareit.item.ImportFormat;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentMapper;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemPageRow;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.metrics.MetricsConfig;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class ItemServiceImpl implements ItemService {
 
     private final ItemRepository itemRepository;
@@ -32,6 +49,13 @@ public class ItemServiceImpl implements ItemService {
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
     private final RequestRepository requestRepository;
+    private final ObjectProvider<ItemSearchIndex> searchIndex;
+    private final ObjectProvider<BookingIntervalIndex> bookingIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    private static final int IMPORT_CHUNK_SIZE = 1000;
 
     @Override
     public ItemDto addItem(ItemDto itemDto, Long userId) {
@@ -46,7 +70,10 @@ public class ItemServiceImpl implements ItemService {
                     .orElseThrow(() -> new RequestNotFoundException("Запрос не найден.")));
         }
 
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        searchIndex.ifAvailable(index -> index.put(savedItem));
+
+        return ItemMapper.toItemDto(savedItem);
     }
 
     @Override
@@ -63,39 +90,39 @@ public class ItemServiceImpl implements ItemService {
 
         updateItemData(itemDto, item, userId);
 
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        searchIndex.ifAvailable(index -> index.put(savedItem));
+
+        return ItemMapper.toItemDto(savedItem);
     }
 
+    /**
+     * The owner's page reads comments and the last and next bookings in one query, the item itself
+     * usually comes from the entity cache.
+     */
     @Override
     public ItemDto getItem(Long itemId, Long userId) {
 
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ItemNotFoundException("Предмет под номером " + itemId + " не найден."));
 
-        List<Comment> comments = commentRepository.findByItemId(itemId);
+        ItemDto itemDto = ItemMapper.toItemDto(item);
+        List<ItemDto.Comment> comments = new ArrayList<>();
 
         if (item.getOwner().equals(userId)) {
-            Booking lastBooking = getLastBooking(itemId);
-            Booking nextBooking = getNextBooking(itemId);
-
-            ItemDto itemDto = ItemMapper.toItemDto(item);
-
-            if (lastBooking != null) {
-                itemDto.setLastBooking(new ItemDto.Booking(lastBooking.getId(), lastBooking.getBooker().getId()));
-            }
-            if (nextBooking != null) {
-                itemDto.setNextBooking(new ItemDto.Booking(nextBooking.getId(), nextBooking.getBooker().getId()));
-            }
-            if (!comments.isEmpty()) {
-                itemDto.setComments(comments.stream().map(CommentMapper::toItemComment).collect(Collectors.toList()));
+            for (ItemPageRow row : commentRepository.findCommentsAndLastAndNextBookings(itemId, LocalDateTime.now())) {
+                if (row.getIsLast() == null) {
+                    comments.add(CommentMapper.toItemComment(row));
+                } else {
+                    setBooking(itemDto, row);
+                }
             }
-
-            return itemDto;
+        } else {
+            commentRepository.findByItemId(itemId).forEach(comment -> comments.add(CommentMapper.toItemComment(comment)));
         }
 
-        ItemDto itemDto = ItemMapper.toItemDto(item);
         if (!comments.isEmpty()) {
-            itemDto.setComments(comments.stream().map(CommentMapper::toItemComment).collect(Collectors.toList()));
+            itemDto.setComments(comments);
         }
 
         return itemDto;
@@ -108,44 +135,29 @@ public class ItemServiceImpl implements ItemService {
         }
 
         List<Item> items = itemRepository.findAllByOwner(userId, PageRequest.of(from, size, Sort.by("id")));
-        List<Comment> comments = commentRepository.findAllByItem_Owner(userId);
-        List<Booking> bookings = bookingRepository.findAllByItem_OwnerAndState(
-                userId,
-                Status.APPROVED.toString(),
-                PageRequest.of(from, size)
-        );
-
-        List<ItemDto> itemDtos = new ArrayList<>();
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        for (Item item : items) {
+        // the page is sorted by id, so its items are all the owner's items between the first and the last id
+        Long firstItemId = items.get(0).getId();
+        Long lastItemId = items.get(items.size() - 1).getId();
 
-            Booking lastBooking = bookings.stream()
-                    .filter(b -> b.getItem().equals(item))
-                    .filter(b -> b.getEnd().isBefore(LocalDateTime.now())).max(Comparator.comparing(Booking::getEnd))
-                    .orElse(null);
+        Map<Long, List<ItemDto.Comment>> comments = commentRepository
+                .findAllByItem_OwnerAndItem_IdBetween(userId, firstItemId, lastItemId).stream()
+                .collect(Collectors.groupingBy(c -> c.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toItemComment, Collectors.toList())));
 
-            Booking nextBooking = bookings.stream()
-                    .filter(b -> b.getItem().equals(item))
-                    .filter(b -> b.getStart().isAfter(LocalDateTime.now())).min(Comparator.comparing(Booking::getStart))
-                    .orElse(null);
+        List<ItemDto> itemDtos = new ArrayList<>(items.size());
 
+        for (Item item : items) {
             ItemDto itemDto = ItemMapper.toItemDto(item);
-
-            if (lastBooking != null) {
-                itemDto.setLastBooking(new ItemDto.Booking(lastBooking.getId(), lastBooking.getBooker().getId()));
-            }
-            if (nextBooking != null) {
-                itemDto.setNextBooking(new ItemDto.Booking(nextBooking.getId(), nextBooking.getBooker().getId()));
-            }
-            if (!comments.isEmpty()) {
-                itemDto.setComments(comments.stream()
-                        .filter(c -> c.getItem().getId().equals(item.getId()))
-                        .map(CommentMapper::toItemComment)
-                        .collect(Collectors.toList()));
-            }
+            itemDto.setComments(comments.getOrDefault(item.getId(), Collections.emptyList()));
 
             itemDtos.add(itemDto);
         }
+        setBookings(itemDtos, userId, firstItemId, lastItemId);
+
         return itemDtos;
     }
 
@@ -156,6 +168,11 @@ public class ItemServiceImpl implements ItemService {
             return Collections.emptyList();
         }
 
+        ItemSearchIndex index = searchIndex.getIfAvailable();
+        if (index != null) {
+            return index.search(text, from, size);
+        }
+
         List<Item> items = itemRepository.searchItems(text, PageRequest.of(from, size));
 
         return items.stream().map(ItemMapper::toItemDto).collect(Collectors.toList());
@@ -180,8 +197,76 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
+    @Override
+    public ItemImportResult importItems(Long userId, ImportFormat format, InputStream in) throws IOException {
+
+        if (!isUserPresent(userId)) {
+            throw new UserNotFoundException("Пользователь под номером " + userId + " не найден.");
+        }
+
+        ItemImportResult result = new ItemImportResult();
+        try (ItemRowReader reader = new ItemRowReader(format, in, objectMapper)) {
+            for (List<ItemRowReader.Row> rows = reader.next(IMPORT_CHUNK_SIZE); !rows.isEmpty();
+                 rows = reader.next(IMPORT_CHUNK_SIZE)) {
+                List<ItemRowReader.Row> chunk = rows;
+                List<Item> items = transactionTemplate.execute(status -> importChunk(userId, chunk, result));
+                result.setImported(result.getImported() + items.size());
+                searchIndex.ifAvailable(index -> items.forEach(index::put));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Saves the valid rows of one chunk in JDBC batches. The chunk's request ids are resolved with a single query,
+     * and the persistence context is cleared afterwards so that memory use does not grow with the file size.
+     */
+    private List<Item> importChunk(Long userId, List<ItemRowReader.Row> rows, ItemImportResult result) {
+
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+
+        Set<Long> requestIds = rows.stream()
+                .filter(row -> row.getItem() != null && row.getItem().getRequestId() != null)
+                .map(row -> row.getItem().getRequestId())
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = requestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+        List<Item> items = new ArrayList<>(rows.size());
+        for (ItemRowReader.Row row : rows) {
+            if (row.getError() != null) {
+                result.addError(row.getNumber(), row.getError());
+                continue;
+            }
+            try {
+                ItemDto itemDto = row.getItem();
+                itemDto.setId(null);
+                itemDataValidation(itemDto);
+
+                Item item = ItemMapper.toItem(itemDto);
+                item.setOwner(userId);
+                if (itemDto.getRequestId() != null) {
+                    ItemRequest request = requests.get(itemDto.getRequestId());
+                    if (request == null) {
+                        throw new RequestNotFoundException("Запрос не найден.");
+                    }
+                    item.setRequest(request);
+                }
+                items.add(item);
+            } catch (InvalidDataException | RequestNotFoundException e) {
+                result.addError(row.getNumber(), e.getMessage());
+            }
+        }
+
+        itemRepository.saveAll(items);
+        entityManager.flush();
+        entityManager.clear();
+
+        return items;
+    }
+
     private boolean isUserPresent(Long userId) {
-        return userRepository.findAll().stream().anyMatch(user -> Objects.equals(user.getId(), userId));
+        return userRepository.existsById(userId);
     }
 
     private void itemValidation(ItemDto itemDto, Long userId) {
@@ -191,11 +276,14 @@ public class ItemServiceImpl implements ItemService {
         if (!isUserPresent(userId)) {
             throw new UserNotFoundException("Пользователь под номером " + userId + " не найден.");
         }
+        itemDataValidation(itemDto);
+    }
 
+    private void itemDataValidation(ItemDto itemDto) {
         if (itemDto.getAvailable() == null) {
             throw new InvalidDataException("Статус доступности предмета к аренде не указан.");
         }
-        if (itemDto.getName().isBlank()) {
+        if (itemDto.getName() == null || itemDto.getName().isBlank()) {
             throw new InvalidDataException("Название предмета не указанно.");
         }
         if (itemDto.getDescription() == null) {
@@ -222,17 +310,26 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
-    private Booking getLastBooking(Long itemId) {
+    private void setBookings(List<ItemDto> itemDtos, Long ownerId, Long firstItemId, Long lastItemId) {
 
-        Sort sort = Sort.by(Sort.Direction.ASC, "start");
-        LocalDateTime time = LocalDateTime.now();
-        return bookingRepository.findFirstByItem_IdAndStartIsBefore(itemId, time, sort).orElse(null);
-    }
+        Map<Long, ItemDto> itemsById = itemDtos.stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+
+        BookingIntervalIndex index = bookingIndex.getIfAvailable();
+        List<BookingShort> bookings = index != null
+                ? index.findLastAndNextBookings(itemsById.keySet(), LocalDateTime.now())
+                : bookingRepository.findLastAndNextBookings(ownerId, firstItemId, lastItemId, LocalDateTime.now());
 
-    private Booking getNextBooking(Long itemId) {
+        for (BookingShort booking : bookings) {
+            setBooking(itemsById.get(booking.getItemId()), booking);
+        }
+    }
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        LocalDateTime time = LocalDateTime.now();
-        return bookingRepository.findFirstByItem_IdAndStartIsAfter(itemId, time, sort).orElse(null);
+    private void setBooking(ItemDto itemDto, BookingShort booking) {
+        if (booking.getIsLast()) {
+            itemDto.setLastBooking(new ItemDto.Booking(booking.getId(), booking.getBookerId()));
+        } else {
+            itemDto.setNextBooking(new ItemDto.Booking(booking.getId(), booking.getBookerId()));
+        }
     }
 }
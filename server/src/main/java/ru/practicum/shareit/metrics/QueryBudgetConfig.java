@@ -0,0 +1,63 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.RequiredArgsConstructor;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Counts SQL statements and fetched rows per HTTP request and checks them against {@link QueryBudgetProperties}.
+ * Meant for non-production profiles: every JDBC call goes through a proxy while it is enabled.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.query-budget.enabled", havingValue = "true")
+@EnableConfigurationProperties(QueryBudgetProperties.class)
+@RequiredArgsConstructor
+public class QueryBudgetConfig implements WebMvcConfigurer {
+
+    private final QueryBudgetInterceptor interceptor;
+
+    @Bean
+    public static QueryCounter queryCounter() {
+        return new QueryCounter();
+    }
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor(QueryCounter queryCounter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                        .afterQuery((execution, queries) -> queryCounter.statementExecuted())
+                        .proxyResultSet()
+                        .afterMethod(context -> queryCounter.methodExecuted(
+                                context.getTarget(), context.getMethod().getName(), context.getResult()))
+                        .build();
+            }
+        };
+    }
+
+    /**
+     * Picked up by the {@code applicationTaskExecutor}, which writes streamed responses.
+     */
+    @Bean
+    public TaskDecorator queryCountingTaskDecorator(QueryCounter queryCounter) {
+        return queryCounter::propagate;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor);
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import ru.practicum.shareit.exception.QueryBudgetExceededException;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Starts counting when a controller method is about to run and, once the request is complete,
+ * records the counts in the {@value #STATEMENTS} and {@value #ROWS} summaries and logs exceeded budgets.
+ * <p>
+ * The {@value #STATEMENTS_HEADER} and {@value #ROWS_HEADER} headers are set by {@link QueryBudgetAdvice}
+ * just before the body is written, so they miss lazy loads made while the body is serialized.
+ * <p>
+ * Streamed responses are written by the {@code applicationTaskExecutor}, whose tasks count towards
+ * the request through the task decorator of {@link QueryBudgetConfig}. Their counts are recorded
+ * by the async dispatch that completes the request; they get no headers.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.query-budget.enabled", havingValue = "true")
+public class QueryBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String STATEMENTS_HEADER = "X-Query-Count";
+    public static final String ROWS_HEADER = "X-Query-Rows";
+
+    private static final String STATEMENTS = "shareit.http.statements";
+    private static final String ROWS = "shareit.http.rows";
+    private static final String ENDPOINT_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".endpoint";
+    private static final String CHECKED_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".checked";
+    private static final String COUNTS_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".counts";
+
+    private final QueryCounter queryCounter;
+    private final QueryBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        QueryCounter.Counts counts = (QueryCounter.Counts) request.getAttribute(COUNTS_ATTRIBUTE);
+        if (request.getDispatcherType() == DispatcherType.ASYNC && counts != null) {
+            queryCounter.resume(counts);
+        } else {
+            HandlerMethod method = (HandlerMethod) handler;
+            request.setAttribute(ENDPOINT_ATTRIBUTE,
+                    method.getBeanType().getSimpleName() + "." + method.getMethod().getName());
+            request.setAttribute(COUNTS_ATTRIBUTE, queryCounter.start());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        String endpoint = (String) request.getAttribute(ENDPOINT_ATTRIBUTE);
+        QueryCounter.Counts counts = queryCounter.stop();
+        if (endpoint == null || counts == null) {
+            return;
+        }
+
+        summary(STATEMENTS, endpoint).record(counts.getStatements());
+        summary(ROWS, endpoint).record(counts.getRows());
+
+        if (request.getAttribute(CHECKED_ATTRIBUTE) == null && properties.budgetOf(endpoint).isExceededBy(counts)) {
+            log.warn(message(endpoint, counts));
+        }
+    }
+
+    /**
+     * The counts stay in the request, keep growing while the response is streamed and are
+     * picked up again by the async dispatch.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        queryCounter.stop();
+    }
+
+    /**
+     * Called before the body of a successful response is written. Sets the headers and, in {@code FAIL} mode,
+     * replaces the response with an error if the budget is already exceeded.
+     */
+    void beforeBodyWrite(HttpServletRequest request, HttpServletResponse response) {
+        String endpoint = (String) request.getAttribute(ENDPOINT_ATTRIBUTE);
+        QueryCounter.Counts counts = queryCounter.current();
+        if (endpoint == null || counts == null || request.getAttribute(CHECKED_ATTRIBUTE) != null) {
+            return;
+        }
+
+        response.setHeader(STATEMENTS_HEADER, String.valueOf(counts.getStatements()));
+        response.setHeader(ROWS_HEADER, String.valueOf(counts.getRows()));
+
+        if (properties.getMode() == QueryBudgetProperties.Mode.FAIL
+                && properties.budgetOf(endpoint).isExceededBy(counts)) {
+            request.setAttribute(CHECKED_ATTRIBUTE, Boolean.TRUE);
+            log.warn(message(endpoint, counts));
+            throw new QueryBudgetExceededException("Превышен лимит запросов к базе данных для " + endpoint
+                    + ": запросов " + counts.getStatements() + ", строк " + counts.getRows() + ".");
+        }
+    }
+
+    private DistributionSummary summary(String name, String endpoint) {
+        return DistributionSummary.builder(name)
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private String message(String endpoint, QueryCounter.Counts counts) {
+        QueryBudgetProperties.Budget budget = properties.budgetOf(endpoint);
+        return String.format("Query budget of %s exceeded: %d statements (budget %s), %d rows (budget %s)",
+                endpoint, counts.getStatements(), limit(budget.getStatements()), counts.getRows(), limit(budget.getRows()));
+    }
+
+    private static String limit(Integer value) {
+        return value != null ? value.toString() : "none";
+    }
+}
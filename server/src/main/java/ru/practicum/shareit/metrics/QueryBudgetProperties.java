@@ -0,0 +1,51 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limits on SQL statements and fetched rows per HTTP request. Endpoints are keyed by controller and method,
+ * e.g. {@code shareit.query-budget.endpoints[ItemController.getItem].statements=4}; the rest use {@code default-budget}.
+ */
+@Data
+@ConfigurationProperties("shareit.query-budget")
+public class QueryBudgetProperties {
+
+    private boolean enabled;
+
+    private Mode mode = Mode.LOG;
+
+    private Budget defaultBudget = new Budget();
+
+    private Map<String, Budget> endpoints = new HashMap<>();
+
+    public Budget budgetOf(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaultBudget);
+    }
+
+    public enum Mode {
+        // Записать предупреждение в лог
+        LOG,
+        // Вернуть ошибку вместо ответа
+        FAIL
+    }
+
+    /**
+     * An unset limit is not checked.
+     */
+    @Data
+    public static class Budget {
+
+        private Integer statements;
+
+        private Integer rows;
+
+        public boolean isExceededBy(QueryCounter.Counts counts) {
+            return statements != null && counts.getStatements() > statements
+                    || rows != null && counts.getRows() > rows;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.Data;
+
+import java.sql.ResultSet;
+
+/**
+ * Counts SQL statements and fetched rows of the current thread between {@link #start()} and {@link #stop()}.
+ * Work done outside of these calls, e.g. at startup or in other threads, is not counted, unless it is
+ * handed to another thread through {@link #propagate(Runnable)}.
+ */
+public class QueryCounter {
+
+    private final ThreadLocal<Counts> current = new ThreadLocal<>();
+
+    public Counts start() {
+        Counts counts = new Counts();
+        current.set(counts);
+        return counts;
+    }
+
+    /**
+     * Continues counting into counts started earlier, e.g. by another dispatch of the same request.
+     */
+    public void resume(Counts counts) {
+        current.set(counts);
+    }
+
+    public Counts stop() {
+        Counts counts = current.get();
+        current.remove();
+        return counts;
+    }
+
+    /**
+     * Returns the counts so far, or {@code null} when the thread is not being counted.
+     */
+    public Counts current() {
+        return current.get();
+    }
+
+    /**
+     * Wraps a task so that its queries count towards the calling thread's counts, wherever the task runs.
+     */
+    public Runnable propagate(Runnable task) {
+        Counts counts = current.get();
+        if (counts == null) {
+            return task;
+        }
+        return () -> {
+            Counts previous = current.get();
+            current.set(counts);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    current.set(previous);
+                } else {
+                    current.remove();
+                }
+            }
+        };
+    }
+
+    void statementExecuted() {
+        Counts counts = current.get();
+        if (counts != null) {
+            synchronized (counts) {
+                counts.statements++;
+            }
+        }
+    }
+
+    void methodExecuted(Object target, String methodName, Object result) {
+        Counts counts = current.get();
+        if (counts != null && target instanceof ResultSet && methodName.equals("next") && Boolean.TRUE.equals(result)) {
+            synchronized (counts) {
+                counts.rows++;
+            }
+        }
+    }
+
+    @Data
+    public static class Counts {
+
+        private int statements;
+
+        private int rows;
+    }
+}
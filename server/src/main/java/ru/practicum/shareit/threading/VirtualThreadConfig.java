@@ -0,0 +1,89 @@
+package ru.practicum.shareit.threading;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Tomcat request handling and Spring MVC async work (streamed exports) on virtual threads
+ * when {@code shareit.threads=virtual}. Concurrency is then limited by the Hikari pool
+ * ({@code spring.datasource.hikari.maximum-pool-size}) instead of Tomcat's 200 worker threads.
+ * <p>
+ * Only in this mode Tomcat keeps up to {@code shareit.virtual-threads.max-connections} connections open,
+ * and a request waits at most {@code shareit.virtual-threads.connection-timeout} for a database connection,
+ * so that a flood of virtual threads queueing on the pool fails fast instead of piling up.
+ * <p>
+ * Virtual threads need Java 21; the executor is looked up reflectively so that the code still compiles
+ * for Java 11, and startup fails on older runtimes. Spring Boot 3.2 offers the same through
+ * {@code spring.threads.virtual.enabled}, which replaces this class after the upgrade.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.threads", havingValue = "virtual")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<TaskDecorator> taskDecorator;
+    private final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer(
+            @Value("${shareit.virtual-threads.max-connections}") int maxConnections,
+            @Value("${shareit.virtual-threads.accept-count}") int acceptCount) {
+        log.info("Handling requests on virtual threads, up to {} connections", maxConnections);
+        return factory -> factory.addProtocolHandlerCustomizers(handler -> {
+            handler.setExecutor(executor);
+            if (handler instanceof AbstractProtocol) {
+                ((AbstractProtocol<?>) handler).setMaxConnections(maxConnections);
+                ((AbstractProtocol<?>) handler).setAcceptCount(acceptCount);
+            }
+        });
+    }
+
+    @Bean
+    public static BeanPostProcessor virtualThreadConnectionTimeout(
+            @Value("${shareit.virtual-threads.connection-timeout}") Duration connectionTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource) {
+                    ((HikariDataSource) bean).setConnectionTimeout(connectionTimeout.toMillis());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        TaskExecutorAdapter asyncExecutor = new TaskExecutorAdapter(executor);
+        taskDecorator.ifUnique(asyncExecutor::setTaskDecorator);
+        configurer.setTaskExecutor(asyncExecutor);
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            throw new IllegalStateException("shareit.threads=virtual requires Java 21, running on "
+                    + System.getProperty("java.version"), e);
+        }
+    }
+}
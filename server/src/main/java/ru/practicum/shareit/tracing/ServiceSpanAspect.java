@@ -0,0 +1,38 @@
+package ru.practicum.shareit.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps every public method of the application's services in a span named {@code Class.method},
+ * so that JDBC spans are grouped under the service call that issued them.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceSpanAspect {
+
+    private final Tracer tracer;
+
+    @Around("@within(org.springframework.stereotype.Service) && within(ru.practicum.shareit..*)")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+
+        Span span = tracer.nextSpan()
+                .name(joinPoint.getSignature().getDeclaringType().getSimpleName() + "."
+                        + joinPoint.getSignature().getName())
+                .start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
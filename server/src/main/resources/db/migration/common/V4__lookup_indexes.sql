@@ -0,0 +1,13 @@
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id, id);
+
+CREATE INDEX IF NOT EXISTS items_request_idx ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_status_idx ON bookings (booker_id, status, start_date, id);
+
+CREATE INDEX IF NOT EXISTS bookings_item_status_idx ON bookings (item_id, status, start_date);
+
+CREATE INDEX IF NOT EXISTS comments_item_idx ON comments (item_id);
+
+CREATE INDEX IF NOT EXISTS requests_requester_idx ON requests (requester_id);
+
+CREATE INDEX IF NOT EXISTS requests_created_idx ON requests (created DESC);
@@ -0,0 +1,9 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE users ALTER COLUMN id SET GENERATED BY DEFAULT;
+ALTER TABLE requests ALTER COLUMN id SET GENERATED BY DEFAULT;
+ALTER TABLE items ALTER COLUMN id SET GENERATED BY DEFAULT;
+ALTER TABLE comments ALTER COLUMN id SET GENERATED BY DEFAULT;
@@ -0,0 +1,220 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+
+/**
+ * Counts the SQL statements of the list endpoints and of the item and booking pages, including lazy loads made
+ * while the response is serialized or streamed, for one and for five rows of everything. The count must be
+ * exactly the expected one both times: no statement is issued per row, and none is added unnoticed.
+ * The entity cache is emptied before every request, so it cannot hide such statements.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ListEndpointStatementCountTest {
+
+    private static final String USER_ID = "X-Sharer-User-Id";
+    private static final int ROWS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Test
+    void ownerItems() throws Exception {
+        assertStatements("ItemController.getItemsByUserId", 4,
+                data -> get("/items").header(USER_ID, data.owner.getId()));
+    }
+
+    @Test
+    void itemSearch() throws Exception {
+        assertStatements("ItemController.searchItem", 1,
+                data -> get("/items/search").param("text", data.word));
+    }
+
+    @Test
+    void bookingsOfUser() throws Exception {
+        assertStatements("BookingController.findBookingsOfUser", 2,
+                data -> get("/bookings").header(USER_ID, data.booker.getId()));
+    }
+
+    @Test
+    void bookingsOfOwner() throws Exception {
+        assertStatements("BookingController.findBookingsOfOwner", 2,
+                data -> get("/bookings/owner").header(USER_ID, data.owner.getId()));
+    }
+
+    @Test
+    void ownRequests() throws Exception {
+        assertStatements("ItemRequestController.getUserRequests", 3,
+                data -> get("/requests").header(USER_ID, data.requester.getId()));
+    }
+
+    @Test
+    void requestsOfOthers() throws Exception {
+        assertStatements("ItemRequestController.getAllRequests", 3,
+                data -> get("/requests/all").header(USER_ID, data.owner.getId()));
+    }
+
+    @Test
+    void itemOfOwner() throws Exception {
+        assertStatements("ItemController.getItem", 2,
+                data -> get("/items/" + data.item.getId()).header(USER_ID, data.owner.getId()));
+    }
+
+    @Test
+    void bookingOfBooker() throws Exception {
+        assertStatements("BookingController.findBookingById", 1,
+                data -> get("/bookings/" + data.waiting.getId()).header(USER_ID, data.booker.getId()));
+    }
+
+    @Test
+    void bookingApproval() throws Exception {
+        assertStatements("BookingController.setApproval", 4,
+                data -> patch("/bookings/" + data.waiting.getId()).param("approved", "true")
+                        .header(USER_ID, data.owner.getId()));
+    }
+
+    @Test
+    void exportOfUser() throws Exception {
+        assertStatements("BookingController.exportBookingsOfUser", 2,
+                data -> get("/bookings/export").header(USER_ID, data.booker.getId()));
+    }
+
+    @Test
+    void exportOfOwner() throws Exception {
+        assertStatements("BookingController.exportBookingsOfOwner", 2,
+                data -> get("/bookings/owner/export").header(USER_ID, data.owner.getId()));
+    }
+
+    private void assertStatements(String endpoint, long expected,
+                                  Function<Data, MockHttpServletRequestBuilder> request) throws Exception {
+        long single = statements(endpoint, request.apply(new Data(1)));
+        long many = statements(endpoint, request.apply(new Data(ROWS)));
+
+        assertThat(single).as("statements of %s for one row", endpoint).isEqualTo(expected);
+        assertThat(many).as("statements of %s for %d rows", endpoint, ROWS).isEqualTo(expected);
+    }
+
+    private long statements(String endpoint, MockHttpServletRequestBuilder request) throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        double before = total(endpoint);
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        return Math.round(total(endpoint) - before);
+    }
+
+    private double total(String endpoint) {
+        DistributionSummary summary = meterRegistry.find("shareit.http.statements").tag("endpoint", endpoint).summary();
+        return summary != null ? summary.totalAmount() : 0;
+    }
+
+    /**
+     * An owner with {@code rows} items, each answering its own request, with a comment by its own author,
+     * a past booking by a common booker and a future booking by its own booker. The first item also has
+     * {@code rows} more comments and a waiting booking by the common booker.
+     */
+    private class Data {
+
+        private final String word = UUID.randomUUID().toString().replace("-", "");
+        private final User owner = user();
+        private final User booker = user();
+        private final User requester = user();
+        private Item item;
+        private Booking waiting;
+
+        private Data(int rows) {
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < rows; i++) {
+                ItemRequest request = requestRepository.save(
+                        new ItemRequest(null, "Нужна дрель", requester, now.minusDays(i)));
+
+                Item item = new Item(null, "Дрель " + word, "Дрель номер " + i, true);
+                item.setOwner(owner.getId());
+                item.setRequest(request);
+                item = itemRepository.save(item);
+
+                comment(item, now);
+
+                booking(item, booker, now.minusDays(3), now.minusDays(2), Status.APPROVED);
+                booking(item, user(), now.plusDays(1 + i), now.plusDays(2 + i), Status.APPROVED);
+
+                if (i == 0) {
+                    this.item = item;
+                    waiting = booking(item, booker, now.plusDays(100), now.plusDays(101), Status.WAITING);
+                }
+            }
+            for (int i = 0; i < rows; i++) {
+                comment(item, now);
+            }
+        }
+
+        private void comment(Item item, LocalDateTime created) {
+            Comment comment = new Comment();
+            comment.setText("Хорошая дрель");
+            comment.setItem(item);
+            comment.setAuthor(user());
+            comment.setCreated(created);
+            commentRepository.save(comment);
+        }
+
+        private Booking booking(Item item, User booker, LocalDateTime start, LocalDateTime end, Status status) {
+            Booking booking = new Booking(null, start, end);
+            booking.setItem(item);
+            booking.setBooker(booker);
+            booking.setStatus(status);
+            return bookingRepository.save(booking);
+        }
+
+        private User user() {
+            String name = UUID.randomUUID().toString();
+            return userRepository.save(new User(null, name, name + "@mail.ru"));
+        }
+    }
+}
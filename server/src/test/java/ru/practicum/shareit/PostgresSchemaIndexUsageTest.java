@@ -0,0 +1,172 @@
+package ru.practicum.shareit;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.RequestRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plan regression check on Postgres, which the migrations target: the SQL the repository methods emit is EXPLAINed
+ * on an embedded Postgres, migrated by Flyway like production and filled with enough rows per table that the planner
+ * prefers an index wherever one fits. Each check names the index the lookup must use.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(RepositoryPlans.Config.class)
+@DirtiesContext
+class PostgresSchemaIndexUsageTest {
+
+    private static final EmbeddedPostgres POSTGRES = start();
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private final Pageable page = PageRequest.of(0, 10);
+
+    @Autowired
+    private RepositoryPlans repositoryPlans;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    /**
+     * 2000 users owning ten items each, with ten bookings per item, a comment per item and a request
+     * per two items.
+     */
+    @BeforeAll
+    static void seed(@Autowired JdbcTemplate jdbcTemplate) {
+        if (jdbcTemplate.queryForObject("select count(*) from users", Long.class) > 0) {
+            return;
+        }
+        jdbcTemplate.execute("insert into users (id, name, email) " +
+                "select g, 'user ' || g, 'user' || g || '@mail.ru' from generate_series(1, 2000) g");
+        jdbcTemplate.execute("insert into requests (id, description, requester_id, created) " +
+                "select g, 'request ' || g, 1 + g % 2000, now() - g * interval '1 minute' " +
+                "from generate_series(1, 10000) g");
+        jdbcTemplate.execute("insert into items (id, name, description, is_available, owner_id, request_id) " +
+                "select g, 'item ' || g, 'description ' || g, true, 1 + g % 2000, " +
+                "case when g % 2 = 0 then g / 2 end from generate_series(1, 20000) g");
+        jdbcTemplate.execute("insert into bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                "select g, now() + (g % 100 - 50) * interval '1 day', now() + (g % 100 - 49) * interval '1 day', " +
+                "1 + g % 20000, 1 + g % 1999, case when g % 3 = 0 then 'WAITING' else 'APPROVED' end " +
+                "from generate_series(1, 200000) g");
+        jdbcTemplate.execute("insert into comments (id, user_comment, item_id, author_id, created_time) " +
+                "select g, 'comment ' || g, 1 + g % 20000, 1 + g % 2000, now() from generate_series(1, 20000) g");
+        jdbcTemplate.execute("analyze");
+    }
+
+    @Test
+    void bookingsOfBookerUseBookerIndexes() {
+        assertThat(plan(() -> bookingRepository.findPageOfBooker(1L, now, 5L, page)))
+                .contains("bookings_booker_start_idx");
+        assertThat(plan(() -> bookingRepository.findPastPageOfBooker(1L, now, 5L, now, page)))
+                .contains("bookings_booker_start_idx");
+        assertThat(plan(() -> bookingRepository.findPageOfBookerByStatus(1L, now, 5L, Status.WAITING, page)))
+                .contains("bookings_booker_status_idx");
+    }
+
+    @Test
+    void bookingsOfOwnerUseOwnerAndItemIndexes() {
+        assertThat(plan(() -> bookingRepository.findPageOfOwner(1L, now, 5L, page)))
+                .contains("items_owner_idx")
+                .contains("bookings_item_start_idx")
+                .doesNotContain("Seq Scan");
+        assertThat(plan(() -> bookingRepository.findCurrentPageOfOwner(1L, now, 5L, now, page)))
+                .contains("items_owner_idx")
+                .contains("bookings_item_start_idx")
+                .doesNotContain("Seq Scan");
+        assertThat(plan(() -> bookingRepository.findPageOfOwnerByStatus(1L, now, 5L, Status.WAITING, page)))
+                .contains("items_owner_idx")
+                .contains("bookings_item_status_idx")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void approvedBookingsOfItemsUseItemStatusIndex() {
+        assertThat(plan(() -> bookingRepository.findApprovedIntervals(List.of(1L, 2L))))
+                .contains("bookings_item_status_idx");
+        assertThat(plan(() -> bookingRepository.findApprovedEndingAfter(List.of(1L, 2L), now)))
+                .contains("bookings_item_status_idx");
+        assertThat(plan(() -> bookingRepository.existsApprovedOverlap(1L, now, now.plusDays(1))))
+                .contains("bookings_item_status_idx");
+        assertThat(plan(() -> bookingRepository.findLastAndNextBookings(1L, 2000L, 20000L, now)))
+                .contains("items_owner_idx")
+                .contains("bookings_item_status_idx")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void itemPageUsesCommentAndBookingIndexes() {
+        assertThat(plan(() -> commentRepository.findCommentsAndLastAndNextBookings(1L, now)))
+                .contains("comments_item_idx")
+                .contains("bookings_item_")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void lookupsUseTheirIndexes() {
+        assertThat(plan(() -> itemRepository.findAllByOwner(1L, PageRequest.of(0, 10, Sort.by("id")))))
+                .contains("items_owner_idx");
+        assertThat(plan(() -> itemRepository.findAllByRequest_Id(1L)))
+                .contains("items_request_idx");
+        assertThat(plan(() -> commentRepository.findAllByItem_OwnerAndItem_IdBetween(1L, 2000L, 20000L)))
+                .contains("items_owner_idx")
+                .contains("comments_item_idx");
+        assertThat(plan(() -> requestRepository.findAllByRequester_Id(1L)))
+                .contains("requests_requester_idx");
+        assertThat(plan(() -> requestRepository.findAllPageable(1L, page)))
+                .contains("requests_created_idx");
+    }
+
+    private String plan(Runnable lookup) {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        return repositoryPlans.explain(jdbcTemplate, lookup);
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
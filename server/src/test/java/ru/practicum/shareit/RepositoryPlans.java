@@ -0,0 +1,91 @@
+package ru.practicum.shareit;
+
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the statement a repository method sends to the database and EXPLAINs it with the parameters
+ * it was sent with, so that plan checks see exactly the SQL Hibernate emits. Needs {@link Config} in the context.
+ */
+class RepositoryPlans {
+
+    private final List<QueryInfo> recorded = new CopyOnWriteArrayList<>();
+    private volatile boolean recording;
+
+    /**
+     * Runs the call, which must send exactly one statement, and returns the plan of that statement,
+     * one line per row of the EXPLAIN output.
+     */
+    String explain(JdbcTemplate jdbcTemplate, Runnable call) {
+        recorded.clear();
+        recording = true;
+        try {
+            call.run();
+        } finally {
+            recording = false;
+        }
+        if (recorded.size() != 1) {
+            throw new IllegalStateException("Expected one statement, got " + recorded.size() + ": " + recorded);
+        }
+
+        QueryInfo query = recorded.get(0);
+        List<String> plan = jdbcTemplate.query("explain " + query.getQuery(),
+                statement -> bind(statement, query), (resultSet, row) -> resultSet.getString(1));
+        return query.getQuery() + "\n" + String.join("\n", plan);
+    }
+
+    private void record(List<QueryInfo> queries) {
+        if (recording) {
+            recorded.addAll(queries);
+        }
+    }
+
+    private static void bind(PreparedStatement statement, QueryInfo query) throws SQLException {
+        if (query.getParametersList().isEmpty()) {
+            return;
+        }
+        for (ParameterSetOperation operation : query.getParametersList().get(0)) {
+            try {
+                operation.getMethod().invoke(statement, operation.getArgs());
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new SQLException("Cannot bind " + operation.getMethod().getName(), e);
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        static RepositoryPlans repositoryPlans() {
+            return new RepositoryPlans();
+        }
+
+        @Bean
+        static BeanPostProcessor planRecordingDataSourcePostProcessor(RepositoryPlans repositoryPlans) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource)) {
+                        return bean;
+                    }
+                    return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                            .afterQuery((execution, queries) -> repositoryPlans.record(queries))
+                            .build();
+                }
+            };
+        }
+    }
+}
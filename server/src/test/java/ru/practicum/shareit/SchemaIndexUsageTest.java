@@ -0,0 +1,99 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.RequestRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plan regression check for the lookups of the repositories, run on H2 against the SQL the repository methods
+ * emit. H2 also indexes every foreign key, so for single-column lookups the check can only tell that a table scan
+ * is avoided; the composite indexes of the migrations are asserted by name where H2 has no other candidate.
+ * {@link PostgresSchemaIndexUsageTest} asserts the indexes Postgres picks.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(RepositoryPlans.Config.class)
+class SchemaIndexUsageTest {
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private final Pageable page = PageRequest.of(0, 10);
+
+    @Autowired
+    private RepositoryPlans repositoryPlans;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Test
+    void lookupsDoNotScanTables() {
+        Map<String, Runnable> lookups = new LinkedHashMap<>();
+        lookups.put("page of booker", () -> bookingRepository.findPageOfBooker(1L, now, 5L, page));
+        lookups.put("waiting page of booker",
+                () -> bookingRepository.findPageOfBookerByStatus(1L, now, 5L, Status.WAITING, page));
+        lookups.put("page of owner", () -> bookingRepository.findPageOfOwner(1L, now, 5L, page));
+        lookups.put("past page of owner", () -> bookingRepository.findPastPageOfOwner(1L, now, 5L, now, page));
+        lookups.put("waiting page of owner",
+                () -> bookingRepository.findPageOfOwnerByStatus(1L, now, 5L, Status.WAITING, page));
+        lookups.put("items of owner", () -> itemRepository.findAllByOwner(1L, PageRequest.of(0, 10, Sort.by("id"))));
+        lookups.put("items of request", () -> itemRepository.findAllByRequest_Id(1L));
+        lookups.put("comments of owner's items",
+                () -> commentRepository.findAllByItem_OwnerAndItem_IdBetween(1L, 1L, 2L));
+        lookups.put("last and next bookings of owner's items",
+                () -> bookingRepository.findLastAndNextBookings(1L, 1L, 2L, now));
+        lookups.put("requests of requester", () -> requestRepository.findAllByRequester_Id(1L));
+
+        lookups.forEach((name, lookup) -> assertThat(plan(lookup)).as(name).doesNotContainIgnoringCase("tableScan"));
+    }
+
+    @Test
+    void approvedBookingsOfItemsUseItemStatusIndex() {
+        Map<String, Runnable> lookups = new LinkedHashMap<>();
+        lookups.put("approved intervals", () -> bookingRepository.findApprovedIntervals(List.of(1L, 2L)));
+        lookups.put("approved ending after", () -> bookingRepository.findApprovedEndingAfter(List.of(1L, 2L), now));
+        lookups.put("approved overlap", () -> bookingRepository.existsApprovedOverlap(1L, now, now.plusDays(1)));
+
+        lookups.forEach((name, lookup) -> assertThat(plan(lookup)).as(name)
+                .containsIgnoringCase("bookings_item_status_idx"));
+    }
+
+    @Test
+    void requestsOfOthersAreReadInCreatedOrder() {
+        assertThat(plan(() -> requestRepository.findAllPageable(1L, page)))
+                .containsIgnoringCase("requests_created_idx")
+                .containsIgnoringCase("index sorted");
+    }
+
+    private String plan(Runnable lookup) {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        return repositoryPlans.explain(jdbcTemplate, lookup);
+    }
+}
@@ -0,0 +1,167 @@
+package ru.practicum.shareit.booking.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "shareit.booking.max-concurrent-exports=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookingControllerExportTest {
+
+    private static final String USER_ID = "X-Sharer-User-Id";
+    private static final int BOOKINGS = 1000;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private BookingController bookingController;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User booker;
+    private List<Long> bookingIds;
+
+    @BeforeEach
+    void setUp() {
+        User owner = user();
+        booker = user();
+        Item item = new Item(null, "Дрель", "Аккумуляторная дрель", true);
+        item.setOwner(owner.getId());
+        item = itemRepository.save(item);
+
+        LocalDateTime start = LocalDateTime.now().minusDays(BOOKINGS);
+        List<Booking> bookings = new ArrayList<>(BOOKINGS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            Booking booking = new Booking(null, start.plusDays(i), start.plusDays(i).plusHours(1));
+            booking.setItem(item);
+            booking.setBooker(booker);
+            booking.setStatus(Status.APPROVED);
+            bookings.add(booking);
+        }
+        bookingIds = bookingRepository.saveAll(bookings).stream().map(Booking::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void exportIsOneBookingPerLine() throws Exception {
+        MvcResult result = mockMvc.perform(get("/bookings/export").header(USER_ID, booker.getId())).andReturn();
+        result = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(result.getResponse().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON_VALUE);
+        String content = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(content).endsWith("\n");
+
+        List<Long> exported = new ArrayList<>();
+        for (String line : content.split("\n")) {
+            BookingDto booking = objectMapper.readValue(line, BookingDto.class);
+            assertThat(booking.getBooker().getId()).isEqualTo(booker.getId());
+            assertThat(booking.getItem().getName()).isEqualTo("Дрель");
+            exported.add(booking.getId());
+        }
+        List<Long> newestFirst = new ArrayList<>(bookingIds);
+        Collections.reverse(newestFirst);
+        assertThat(exported).containsExactlyElementsOf(newestFirst);
+    }
+
+    @Test
+    void exportIsWrittenWhileBookingsAreRead() throws IOException {
+        StreamingResponseBody body = bookingController.exportBookingsOfUser(booker.getId()).getBody();
+        WriteRecordingStream out = new WriteRecordingStream();
+
+        body.writeTo(out);
+
+        assertThat(out.writes).isGreaterThan(1);
+        assertThat(out.bytesAtFirstWrite).isLessThan(out.size() / 10);
+    }
+
+    @Test
+    void exportsBeyondTheLimitAreRejectedUntilOneEnds() throws Exception {
+        StreamingResponseBody first = bookingController.exportBookingsOfUser(booker.getId()).getBody();
+        StreamingResponseBody second = bookingController.exportBookingsOfUser(booker.getId()).getBody();
+
+        mockMvc.perform(get("/bookings/export").header(USER_ID, booker.getId()))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").isNotEmpty());
+
+        first.writeTo(OutputStream.nullOutputStream());
+
+        MvcResult result = mockMvc.perform(get("/bookings/owner/export").header(USER_ID, booker.getId()))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        second.writeTo(OutputStream.nullOutputStream());
+    }
+
+    private User user() {
+        String name = UUID.randomUUID().toString();
+        return userRepository.save(new User(null, name, name + "@mail.ru"));
+    }
+
+    /**
+     * Remembers how many writes reached it and how large the first one was.
+     */
+    private static class WriteRecordingStream extends ByteArrayOutputStream {
+
+        private int writes;
+        private int bytesAtFirstWrite = -1;
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length) {
+            record(length);
+            super.write(bytes, offset, length);
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            record(1);
+            super.write(b);
+        }
+
+        private void record(int length) {
+            writes++;
+            if (bytesAtFirstWrite < 0) {
+                bytesAtFirstWrite = length;
+            }
+        }
+    }
+}
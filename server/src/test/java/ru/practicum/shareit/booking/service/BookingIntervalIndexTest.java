@@ -0,0 +1,85 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The budget fits a single item, so every lookup of another item evicts the previous one.
+ */
+@SpringBootTest(properties = {"shareit.booking-index=memory", "shareit.booking-index-max-intervals=2"})
+@ActiveProfiles("test")
+class BookingIntervalIndexTest {
+
+    @Autowired
+    private BookingIntervalIndex index;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+    private final List<Item> items = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User owner = user();
+        User booker = user();
+        for (int i = 0; i < 5; i++) {
+            Item item = new Item(null, "Дрель", "Аккумуляторная дрель", true);
+            item.setOwner(owner.getId());
+            item = itemRepository.save(item);
+            booking(item, booker, start.plusDays(i), start.plusDays(i).plusHours(1));
+            booking(item, booker, start.plusDays(i).plusHours(2), start.plusDays(i).plusHours(3));
+            items.add(item);
+        }
+    }
+
+    @Test
+    void evictedItemsAreLoadedAgain() {
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < items.size(); i++) {
+                Long itemId = items.get(i).getId();
+                LocalDateTime day = start.plusDays(i);
+
+                assertThat(index.isBooked(itemId, day, day.plusMinutes(30))).isTrue();
+                assertThat(index.isBooked(itemId, day.plusHours(2), day.plusHours(4))).isTrue();
+                assertThat(index.isBooked(itemId, day.plusHours(1), day.plusHours(2))).isFalse();
+                assertThat(index.isBooked(itemId, day.minusDays(1), day.minusHours(1))).isFalse();
+            }
+        }
+    }
+
+    private User user() {
+        String name = UUID.randomUUID().toString();
+        return userRepository.save(new User(null, name, name + "@mail.ru"));
+    }
+
+    private void booking(Item item, User booker, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking(null, start, end);
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStatus(Status.APPROVED);
+        bookingRepository.save(booking);
+    }
+}
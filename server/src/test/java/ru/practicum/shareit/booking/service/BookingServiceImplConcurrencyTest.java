@@ -0,0 +1,217 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BookingOverlapException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingServiceImplConcurrencyTest {
+
+    private static final int BOOKINGS = 8;
+    private static final int BOOKERS = 300;
+    private static final int SLOTS = 30;
+    private static final int APPROVERS = 4;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @RepeatedTest(3)
+    void onlyOneOfConcurrentOverlappingApprovalsSucceeds() throws Exception {
+        User owner = user();
+        Item item = new Item(null, "Дрель", "Аккумуляторная дрель", true);
+        item.setOwner(owner.getId());
+        item = itemRepository.save(item);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            Booking booking = new Booking(null, start.plusHours(i), start.plusHours(i).plusDays(1));
+            booking.setItem(item);
+            booking.setBooker(user());
+            bookingIds.add(bookingRepository.save(booking).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(BOOKINGS);
+        CountDownLatch ready = new CountDownLatch(BOOKINGS);
+        CountDownLatch go = new CountDownLatch(1);
+        try {
+            List<Future<?>> approvals = new ArrayList<>();
+            for (Long bookingId : bookingIds) {
+                approvals.add(executor.submit(() -> {
+                    ready.countDown();
+                    go.await();
+                    return bookingService.setApproval(bookingId, owner.getId(), true);
+                }));
+            }
+            ready.await();
+            go.countDown();
+
+            int approved = 0;
+            for (Future<?> approval : approvals) {
+                try {
+                    approval.get(30, TimeUnit.SECONDS);
+                    approved++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(BookingOverlapException.class);
+                }
+            }
+            assertThat(approved).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(bookingRepository.findAllById(bookingIds))
+                .filteredOn(booking -> booking.getStatus() == Status.APPROVED)
+                .hasSize(1);
+    }
+
+    /**
+     * Hundreds of bookers ask for the same item at overlapping times while the owner approves waiting bookings
+     * from several threads, one at a time and in batches. Whatever the interleaving, no two approved bookings
+     * of the item may overlap, and every failure must be a rejected overlap.
+     */
+    @RepeatedTest(2)
+    void bookingsCreatedWhileOthersAreApprovedNeverOverlap() throws Exception {
+        User owner = user();
+        Item item = new Item(null, "Дрель", "Аккумуляторная дрель", true);
+        item.setOwner(owner.getId());
+        item = itemRepository.save(item);
+        List<User> bookers = new ArrayList<>(BOOKERS);
+        for (int i = 0; i < BOOKERS; i++) {
+            bookers.add(user());
+        }
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Long itemId = item.getId();
+        ExecutorService executor = Executors.newFixedThreadPool(BOOKERS + APPROVERS);
+        CountDownLatch ready = new CountDownLatch(BOOKERS + APPROVERS);
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch booked = new CountDownLatch(BOOKERS);
+        Set<Long> attempted = ConcurrentHashMap.newKeySet();
+        AtomicInteger approved = new AtomicInteger();
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < BOOKERS; i++) {
+                LocalDateTime bookingStart = start.plusHours(i % SLOTS);
+                BookingDto bookingDto = new BookingDto(null, bookingStart, bookingStart.plusHours(3), itemId,
+                        null, null, null);
+                Long bookerId = bookers.get(i).getId();
+                tasks.add(executor.submit(() -> {
+                    ready.countDown();
+                    go.await();
+                    try {
+                        return bookingService.createBooking(bookerId, bookingDto);
+                    } catch (BookingOverlapException e) {
+                        return null;
+                    } finally {
+                        booked.countDown();
+                    }
+                }));
+            }
+            for (int i = 0; i < APPROVERS; i++) {
+                boolean batch = i % 2 == 0;
+                tasks.add(executor.submit(() -> {
+                    ready.countDown();
+                    go.await();
+                    boolean lastRound;
+                    do {
+                        lastRound = booked.getCount() == 0;
+                        List<Long> waiting = bookingService.findBookingsOfOwner(owner.getId(), "WAITING",
+                                        PageRequest.of(0, 50)).stream()
+                                .map(BookingDto::getId)
+                                .filter(attempted::add)
+                                .collect(Collectors.toList());
+                        approved.addAndGet(batch ? approveAll(owner, waiting) : approveEach(owner, waiting));
+                        if (waiting.isEmpty() && !lastRound) {
+                            Thread.sleep(5);
+                        }
+                    } while (!lastRound);
+                    return null;
+                }));
+            }
+            ready.await();
+            go.countDown();
+
+            for (Future<?> task : tasks) {
+                task.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Booking> approvedBookings = bookingRepository.findApprovedEndingAfter(List.of(itemId), start);
+        assertThat(approvedBookings).hasSize(approved.get()).isNotEmpty();
+        for (Booking booking : approvedBookings) {
+            assertThat(approvedBookings)
+                    .filteredOn(other -> !other.getId().equals(booking.getId()))
+                    .noneMatch(other -> other.getStart().isBefore(booking.getEnd())
+                            && other.getEnd().isAfter(booking.getStart()));
+        }
+    }
+
+    private int approveEach(User owner, List<Long> bookingIds) {
+        int approved = 0;
+        for (Long bookingId : bookingIds) {
+            try {
+                bookingService.setApproval(bookingId, owner.getId(), true);
+                approved++;
+            } catch (BookingOverlapException e) {
+                // another booking of the slot was approved first
+            }
+        }
+        return approved;
+    }
+
+    private int approveAll(User owner, List<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return 0;
+        }
+        List<BookingApprovalDto> approvals = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            BookingApprovalDto approval = new BookingApprovalDto();
+            approval.setBookingId(bookingId);
+            approval.setApproved(true);
+            approvals.add(approval);
+        }
+        List<BookingBatchResult> results = bookingService.setApprovals(owner.getId(), approvals);
+        assertThat(results).allMatch(result -> result.getError() == null
+                || result.getError().equals("Вещь уже забронирована на это время."));
+        return (int) results.stream().filter(result -> result.getError() == null).count();
+    }
+
+    private User user() {
+        String name = UUID.randomUUID().toString();
+        return userRepository.save(new User(null, name, name + "@mail.ru"));
+    }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the same checks with the overlap pre-check served by the in-memory index.
+ */
+@SpringBootTest(properties = "shareit.booking-index=memory")
+class BookingServiceImplMemoryIndexTest extends BookingServiceImplTest {
+}
@@ -0,0 +1,164 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BookingNotFoundException;
+import ru.practicum.shareit.exception.BookingOverlapException;
+import ru.practicum.shareit.exception.InvalidDataException;
+import ru.practicum.shareit.exception.ItemNotAvailableException;
+import ru.practicum.shareit.exception.UserOwnItemException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingServiceImplTest {
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+    private final LocalDateTime end = start.plusDays(1);
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private Booking approved;
+
+    @BeforeEach
+    void setUp() {
+        owner = user();
+        booker = user();
+        item = item(true);
+        approved = booking(start, end, Status.APPROVED);
+    }
+
+    @Test
+    void createBookingOfBookedSlotIsRejectedAsOverlap() {
+        assertThatThrownBy(() -> bookingService.createBooking(booker.getId(), bookingDto(item, start, end)))
+                .isInstanceOf(BookingOverlapException.class);
+    }
+
+    @Test
+    void createBookingOfOwnItemIsRejectedBeforeOverlapCheck() {
+        assertThatThrownBy(() -> bookingService.createBooking(owner.getId(), bookingDto(item, start, end)))
+                .isInstanceOf(UserOwnItemException.class);
+    }
+
+    @Test
+    void createBookingOfUnavailableItemIsRejectedBeforeOverlapCheck() {
+        item.setAvailable(false);
+        itemRepository.save(item);
+
+        assertThatThrownBy(() -> bookingService.createBooking(booker.getId(), bookingDto(item, start, end)))
+                .isInstanceOf(ItemNotAvailableException.class);
+    }
+
+    @Test
+    void createBookingEndingBeforeStartIsRejectedBeforeOverlapCheck() {
+        assertThatThrownBy(() -> bookingService.createBooking(booker.getId(), bookingDto(item, end, start)))
+                .isInstanceOf(InvalidDataException.class);
+    }
+
+    @Test
+    void setApprovalsRejectsRepeatedBooking() {
+        Booking waiting = booking(end.plusDays(1), end.plusDays(2), Status.WAITING);
+
+        List<BookingBatchResult> results = bookingService.setApprovals(owner.getId(), List.of(
+                new BookingApprovalDto(waiting.getId(), true),
+                new BookingApprovalDto(waiting.getId(), false)));
+
+        assertThat(results.get(0).getError()).isNull();
+        assertThat(results.get(1).getError()).isNotNull();
+        assertThat(bookingRepository.findById(waiting.getId()).orElseThrow().getStatus()).isEqualTo(Status.APPROVED);
+    }
+
+    @Test
+    void setApprovalsApprovesBookingOverlappingOneRejectedEarlierInBatch() {
+        Booking waiting = booking(start, end, Status.WAITING);
+
+        List<BookingBatchResult> results = bookingService.setApprovals(owner.getId(), List.of(
+                new BookingApprovalDto(approved.getId(), false),
+                new BookingApprovalDto(waiting.getId(), true)));
+
+        assertThat(results).extracting(BookingBatchResult::getError).containsOnlyNulls();
+        assertThat(bookingRepository.findById(approved.getId()).orElseThrow().getStatus()).isEqualTo(Status.REJECTED);
+        assertThat(bookingRepository.findById(waiting.getId()).orElseThrow().getStatus()).isEqualTo(Status.APPROVED);
+    }
+
+    @Test
+    void setApprovalByBookerOrStrangerIsRejected() {
+        Booking waiting = booking(end.plusDays(1), end.plusDays(2), Status.WAITING);
+
+        for (User user : List.of(booker, user())) {
+            assertThatThrownBy(() -> bookingService.setApproval(waiting.getId(), user.getId(), true))
+                    .isInstanceOf(BookingNotFoundException.class);
+        }
+        assertThat(bookingRepository.findById(waiting.getId()).orElseThrow().getStatus()).isEqualTo(Status.WAITING);
+    }
+
+    @Test
+    void setApprovalsOfBookingsOfOtherOwnersAreRejected() {
+        Booking waiting = booking(end.plusDays(1), end.plusDays(2), Status.WAITING);
+        User stranger = user();
+
+        List<BookingBatchResult> results = bookingService.setApprovals(stranger.getId(), List.of(
+                new BookingApprovalDto(waiting.getId(), true),
+                new BookingApprovalDto(approved.getId(), false)));
+
+        assertThat(results).extracting(BookingBatchResult::getError).doesNotContainNull();
+        assertThat(bookingRepository.findById(waiting.getId()).orElseThrow().getStatus()).isEqualTo(Status.WAITING);
+        assertThat(bookingRepository.findById(approved.getId()).orElseThrow().getStatus()).isEqualTo(Status.APPROVED);
+    }
+
+    private User user() {
+        String name = UUID.randomUUID().toString();
+        return userRepository.save(new User(null, name, name + "@mail.ru"));
+    }
+
+    private Item item(boolean available) {
+        Item item = new Item(null, "Дрель", "Аккумуляторная дрель", available);
+        item.setOwner(owner.getId());
+        return itemRepository.save(item);
+    }
+
+    private Booking booking(LocalDateTime start, LocalDateTime end, Status status) {
+        Booking booking = new Booking(null, start, end);
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStatus(status);
+        return bookingRepository.save(booking);
+    }
+
+    private BookingDto bookingDto(Item item, LocalDateTime start, LocalDateTime end) {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(start);
+        bookingDto.setEnd(end);
+        return bookingDto;
+    }
+}
@@ -0,0 +1,134 @@
+package ru.practicum.shareit.item.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Requests the owner's item page from three times as many threads as there are database connections.
+ * Every request must succeed: one request must never wait for a second connection while holding the first,
+ * otherwise all connections end up held by requests waiting for each other until the pool times out.
+ * <p>
+ * The load is sized so that a request queues for a connection far shorter than the pool's connection timeout,
+ * and slow traces are not logged, which would only slow the requests down.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shareit.tracing.slow-threshold=1m")
+@ActiveProfiles("test")
+class ItemControllerConcurrencyTest {
+
+    private static final int THREADS_PER_CONNECTION = 3;
+    private static final int REQUESTS_PER_THREAD = 10;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Value("${spring.datasource.hikari.maximum-pool-size}")
+    private int poolSize;
+
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = user();
+        User booker = user();
+        item = new Item(null, "Дрель", "Аккумуляторная дрель", true);
+        item.setOwner(owner.getId());
+        item = itemRepository.save(item);
+
+        LocalDateTime now = LocalDateTime.now();
+        Booking past = new Booking(null, now.minusDays(2), now.minusDays(1));
+        Booking future = new Booking(null, now.plusDays(1), now.plusDays(2));
+        for (Booking booking : List.of(past, future)) {
+            booking.setItem(item);
+            booking.setBooker(booker);
+            booking.setStatus(Status.APPROVED);
+            bookingRepository.save(booking);
+        }
+
+        Comment comment = new Comment();
+        comment.setText("Отличная дрель");
+        comment.setItem(item);
+        comment.setAuthor(booker);
+        comment.setCreated(now.minusHours(1));
+        commentRepository.save(comment);
+    }
+
+    @Test
+    void ownerItemPageUnderConcurrentLoad() throws Exception {
+        int threads = poolSize * THREADS_PER_CONNECTION;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<ResponseEntity<ItemDto>>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    List<ResponseEntity<ItemDto>> responses = new ArrayList<>();
+                    for (int j = 0; j < REQUESTS_PER_THREAD; j++) {
+                        responses.add(getItem());
+                    }
+                    return responses;
+                }));
+            }
+            start.countDown();
+
+            for (Future<List<ResponseEntity<ItemDto>>> result : results) {
+                for (ResponseEntity<ItemDto> response : result.get(2, TimeUnit.MINUTES)) {
+                    assertThat(response.getStatusCodeValue()).isEqualTo(200);
+                    assertThat(response.getBody()).isNotNull();
+                    assertThat(response.getBody().getComments()).hasSize(1);
+                    assertThat(response.getBody().getLastBooking()).isNotNull();
+                    assertThat(response.getBody().getNextBooking()).isNotNull();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ResponseEntity<ItemDto> getItem() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", owner.getId().toString());
+        return restTemplate.exchange("/items/" + item.getId(), HttpMethod.GET, new HttpEntity<>(headers), ItemDto.class);
+    }
+
+    private User user() {
+        String name = UUID.randomUUID().toString();
+        return userRepository.save(new User(null, name, name + "@mail.ru"));
+    }
+}
@@ -0,0 +1,166 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.InvalidDataException;
+import ru.practicum.shareit.item.ImportFormat;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ItemRowReaderTest {
+
+    private static final String HEADER = "name,description,available,requestId\n";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void quotedFieldKeepsCommas() throws IOException {
+        List<ItemRowReader.Row> rows = readCsv(HEADER + "\"Дрель, аккумуляторная\",\"Два аккумулятора, кейс\",true,\n");
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getItem().getName()).isEqualTo("Дрель, аккумуляторная");
+        assertThat(rows.get(0).getItem().getDescription()).isEqualTo("Два аккумулятора, кейс");
+        assertThat(rows.get(0).getItem().getAvailable()).isTrue();
+        assertThat(rows.get(0).getItem().getRequestId()).isNull();
+    }
+
+    @Test
+    void doubledQuoteIsOneQuote() throws IOException {
+        List<ItemRowReader.Row> rows = readCsv(HEADER + "\"Дрель \"\"Макита\"\"\",\"\"\"\"\"\",false,7\n");
+
+        assertThat(rows.get(0).getItem().getName()).isEqualTo("Дрель \"Макита\"");
+        assertThat(rows.get(0).getItem().getDescription()).isEqualTo("\"\"");
+        assertThat(rows.get(0).getItem().getAvailable()).isFalse();
+        assertThat(rows.get(0).getItem().getRequestId()).isEqualTo(7L);
+    }
+
+    @Test
+    void quotedFieldKeepsLineBreaks() throws IOException {
+        List<ItemRowReader.Row> rows = readCsv(HEADER +
+                "Дрель,\"Первая строка\nвторая строка\r\nтретья строка\",true,\r\n" +
+                "Пила,Ручная,true,\r\n");
+
+        assertThat(rows).extracting(row -> row.getItem().getName()).containsExactly("Дрель", "Пила");
+        assertThat(rows.get(0).getItem().getDescription())
+                .isEqualTo("Первая строка\nвторая строка\r\nтретья строка");
+        assertThat(rows.get(1).getItem().getDescription()).isEqualTo("Ручная");
+    }
+
+    @Test
+    void headerNamesColumnsInAnyOrderAndCase() throws IOException {
+        List<ItemRowReader.Row> rows = readCsv(" Available ,DESCRIPTION,Name\ntrue,Аккумуляторная,Дрель\n");
+
+        assertThat(rows.get(0).getItem().getName()).isEqualTo("Дрель");
+        assertThat(rows.get(0).getItem().getDescription()).isEqualTo("Аккумуляторная");
+        assertThat(rows.get(0).getItem().getAvailable()).isTrue();
+        assertThat(rows.get(0).getItem().getRequestId()).isNull();
+    }
+
+    @Test
+    void headerWithoutRequiredColumnIsRejected() {
+        assertThatThrownBy(() -> readCsv("name,description\nДрель,Аккумуляторная\n"))
+                .isInstanceOf(InvalidDataException.class);
+    }
+
+    @Test
+    void emptyInputHasNoRows() throws IOException {
+        assertThat(readCsv("")).isEmpty();
+        assertThat(readCsv(HEADER)).isEmpty();
+        assertThat(readJson("")).isEmpty();
+    }
+
+    @Test
+    void errorsCarryTheNumberOfTheRecord() throws IOException {
+        List<ItemRowReader.Row> rows = readCsv(HEADER +
+                "Дрель,\"Две\nстроки\",true,\n" +
+                "\n" +
+                "Пила,Ручная,может быть,\n" +
+                "Молоток,Большой,true,первый\n");
+
+        assertThat(rows).extracting(ItemRowReader.Row::getNumber).containsExactly(1L, 2L, 3L);
+        assertThat(rows.get(0).getError()).isNull();
+        assertThat(rows.get(1).getItem()).isNull();
+        assertThat(rows.get(1).getError()).contains("может быть");
+        assertThat(rows.get(2).getItem()).isNull();
+        assertThat(rows.get(2).getError()).contains("первый");
+    }
+
+    @Test
+    void malformedJsonLineIsAnErrorOfItsRow() throws IOException {
+        List<ItemRowReader.Row> rows = readJson(
+                "{\"name\":\"Дрель\",\"description\":\"Аккумуляторная\",\"available\":true}\n" +
+                "\n" +
+                "{\"name\":\"Пила\",\n" +
+                "{\"name\":\"Молоток\",\"description\":\"Большой\",\"available\":false,\"requestId\":3}\n");
+
+        assertThat(rows).extracting(ItemRowReader.Row::getNumber).containsExactly(1L, 2L, 3L);
+        assertThat(rows.get(0).getItem().getName()).isEqualTo("Дрель");
+        assertThat(rows.get(1).getItem()).isNull();
+        assertThat(rows.get(1).getError()).isNotBlank();
+        assertThat(rows.get(2).getItem().getRequestId()).isEqualTo(3L);
+    }
+
+    @Test
+    void rowsAreReadInChunks() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 1; i <= 5; i++) {
+            csv.append("Вещь ").append(i).append(",Описание,true,\n");
+        }
+
+        try (ItemRowReader reader = reader(ImportFormat.CSV, csv.toString())) {
+            assertThat(reader.next(2)).extracting(ItemRowReader.Row::getNumber).containsExactly(1L, 2L);
+            assertThat(reader.next(2)).extracting(ItemRowReader.Row::getNumber).containsExactly(3L, 4L);
+            assertThat(reader.next(2)).extracting(ItemRowReader.Row::getNumber).containsExactly(5L);
+            assertThat(reader.next(2)).isEmpty();
+        }
+    }
+
+    @Test
+    void reportedErrorsAreCappedButAllAreCounted() throws IOException {
+        int rowCount = ItemImportResult.MAX_REPORTED_ERRORS + 500;
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < rowCount; i++) {
+            csv.append("Вещь,Описание,нет,\n");
+        }
+
+        ItemImportResult result = new ItemImportResult();
+        readCsv(csv.toString()).forEach(row -> result.addError(row.getNumber(), row.getError()));
+
+        assertThat(result.getFailed()).isEqualTo(rowCount);
+        assertThat(result.getErrors()).hasSize(ItemImportResult.MAX_REPORTED_ERRORS);
+        assertThat(result.getErrors().get(0).getRow()).isEqualTo(1L);
+        assertThat(result.getErrors().get(ItemImportResult.MAX_REPORTED_ERRORS - 1).getRow())
+                .isEqualTo(ItemImportResult.MAX_REPORTED_ERRORS);
+    }
+
+    private List<ItemRowReader.Row> readCsv(String content) throws IOException {
+        return readAll(ImportFormat.CSV, content);
+    }
+
+    private List<ItemRowReader.Row> readJson(String content) throws IOException {
+        return readAll(ImportFormat.NDJSON, content);
+    }
+
+    private List<ItemRowReader.Row> readAll(ImportFormat format, String content) throws IOException {
+        List<ItemRowReader.Row> rows = new ArrayList<>();
+        try (ItemRowReader reader = reader(format, content)) {
+            for (List<ItemRowReader.Row> chunk = reader.next(100); !chunk.isEmpty(); chunk = reader.next(100)) {
+                rows.addAll(chunk);
+            }
+        }
+        return rows;
+    }
+
+    private ItemRowReader reader(ImportFormat format, String content) {
+        return new ItemRowReader(format, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                objectMapper);
+    }
+}
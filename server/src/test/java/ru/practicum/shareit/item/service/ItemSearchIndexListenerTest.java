@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "shareit.item-search.index=memory")
+@ActiveProfiles("test")
+class ItemSearchIndexListenerTest {
+
+    @Autowired
+    private ItemSearchIndex searchIndex;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final String word = UUID.randomUUID().toString().replace("-", "");
+
+    @Test
+    void deletedItemIsDroppedFromIndex() {
+        Item item = item();
+
+        itemRepository.deleteById(item.getId());
+
+        assertThat(searchIndex.search(word, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void itemStaysInIndexWhenDeleteIsRolledBack() {
+        Item item = item();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            itemRepository.deleteById(item.getId());
+            itemRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(searchIndex.search(word, 0, 10)).hasSize(1);
+    }
+
+    private Item item() {
+        String name = UUID.randomUUID().toString();
+        User owner = userRepository.save(new User(null, name, name + "@mail.ru"));
+        Item item = new Item(null, "Дрель " + word, "Аккумуляторная дрель", true);
+        item.setOwner(owner.getId());
+        item = itemRepository.save(item);
+        searchIndex.put(item);
+        assertThat(searchIndex.search(word, 0, 10)).hasSize(1);
+        return item;
+    }
+}
@@ -0,0 +1,158 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemSearchIndexTest {
+
+    private final ItemSearchIndex index = new ItemSearchIndex(null);
+
+    @Test
+    void findsSubstringsOfNameAndDescriptionIgnoringCase() {
+        index.put(item(1L, "Дрель", "Аккумуляторная", true));
+        index.put(item(2L, "Отвертка", "Крестовая", true));
+
+        assertThat(ids(index.search("дрел", 0, 10))).containsExactly(1L);
+        assertThat(ids(index.search("ЯТОРН", 0, 10))).containsExactly(1L);
+        assertThat(ids(index.search("вертка крест", 0, 10))).isEmpty();
+        assertThat(ids(index.search("молоток", 0, 10))).isEmpty();
+    }
+
+    @Test
+    void matchesByNameComeBeforeMatchesByDescription() {
+        index.put(item(1L, "Набор", "Дрель и биты", true));
+        index.put(item(2L, "Дрель ударная", "Мощная", true));
+        index.put(item(3L, "Кейс", "Для дрели", true));
+
+        assertThat(ids(index.search("дрел", 0, 10))).containsExactly(2L, 1L, 3L);
+    }
+
+    @Test
+    void unavailableItemsAreNotFound() {
+        index.put(item(1L, "Дрель", "Аккумуляторная", false));
+
+        assertThat(index.search("дрель", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void queryShorterThanATrigramChecksEveryItem() {
+        index.put(item(1L, "Пила", "Ручная", true));
+        index.put(item(2L, "Дрель", "Аккумуляторная", true));
+
+        assertThat(ids(index.search("ел", 0, 10))).containsExactly(2L);
+        assertThat(ids(index.search("а", 0, 10))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void resultsArePaged() {
+        for (long id = 1; id <= 5; id++) {
+            index.put(item(id, "Дрель " + id, "Аккумуляторная", true));
+        }
+
+        assertThat(ids(index.search("дрель", 0, 2))).containsExactly(1L, 2L);
+        assertThat(ids(index.search("дрель", 2, 2))).containsExactly(5L);
+    }
+
+    @Test
+    void updatedItemIsFoundOnlyByItsNewText() {
+        index.put(item(1L, "Дрель", "Аккумуляторная", true));
+        index.put(item(1L, "Перфоратор", "Сетевой", true));
+
+        assertThat(index.search("дрель", 0, 10)).isEmpty();
+        assertThat(index.search("аккумул", 0, 10)).isEmpty();
+        assertThat(index.search("перфоратор", 0, 10))
+                .containsExactly(new ItemDto(1L, "Перфоратор", "Сетевой", true, 0L));
+    }
+
+    @Test
+    void removedItemIsNotFound() {
+        index.put(item(1L, "Дрель", "Аккумуляторная", true));
+        index.put(item(2L, "Дрель", "Сетевая", true));
+
+        index.remove(1L);
+        index.remove(3L);
+
+        assertThat(ids(index.search("дрель", 0, 10))).containsExactly(2L);
+        assertThat(index.search("аккумул", 0, 10)).isEmpty();
+        assertThat(ids(index.search("д", 0, 10))).containsExactly(2L);
+    }
+
+    /**
+     * Writers keep replacing and removing items while readers search. Every search must see each item
+     * either before or after a change, never half indexed, and the index must end up consistent.
+     */
+    @Test
+    void searchesRunConcurrentlyWithChanges() throws Exception {
+        int items = 200;
+        for (long id = 1; id <= items; id++) {
+            index.put(item(id, "Дрель " + id, "Аккумуляторная", true));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch go = new CountDownLatch(1);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int writer = 0; writer < 2; writer++) {
+                long first = writer * items / 2 + 1;
+                tasks.add(executor.submit(() -> {
+                    go.await();
+                    for (int round = 0; round < 50; round++) {
+                        for (long id = first; id < first + items / 2; id++) {
+                            if (round % 2 == 0) {
+                                index.put(item(id, "Перфоратор " + id, "Сетевой", true));
+                            } else {
+                                index.remove(id);
+                                index.put(item(id, "Дрель " + id, "Аккумуляторная", true));
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int reader = 0; reader < 6; reader++) {
+                tasks.add(executor.submit(() -> {
+                    go.await();
+                    for (int i = 0; i < 200; i++) {
+                        for (ItemDto itemDto : index.search("дрель", 0, items)) {
+                            assertThat(itemDto.getName()).startsWith("Дрель");
+                            assertThat(itemDto.getDescription()).isEqualTo("Аккумуляторная");
+                        }
+                        for (ItemDto itemDto : index.search("сетев", 0, items)) {
+                            assertThat(itemDto.getName()).startsWith("Перфоратор");
+                        }
+                    }
+                    return null;
+                }));
+            }
+            go.countDown();
+
+            for (Future<?> task : tasks) {
+                task.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(index.search("дрель", 0, items)).hasSize(items);
+        assertThat(index.search("перфоратор", 0, items)).isEmpty();
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        Item item = new Item(null, name, description, available);
+        item.setId(id);
+        return item;
+    }
+
+    private static List<Long> ids(List<ItemDto> items) {
+        List<Long> ids = new ArrayList<>();
+        items.forEach(item -> ids.add(item.getId()));
+        return ids;
+    }
+}
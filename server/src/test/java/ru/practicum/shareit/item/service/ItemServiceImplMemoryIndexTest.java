@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the same checks with last and next bookings of the owner listing served by the in-memory index.
+ */
+@SpringBootTest(properties = "shareit.booking-index=memory")
+class ItemServiceImplMemoryIndexTest extends ItemServiceImplTest {
+}
@@ -0,0 +1,168 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemServiceImplTest {
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = user();
+        booker = user();
+        item = itemRepository.save(new Item(null, "Дрель", "Аккумуляторная дрель", true));
+        item.setOwner(owner.getId());
+        item = itemRepository.save(item);
+    }
+
+    @Test
+    void ownerListingShowsLastEndedAndNextStartingApprovedBookings() {
+        booking(now.minusDays(10), now.minusDays(9), Status.APPROVED);
+        Booking endedLast = booking(now.minusDays(5), now.minusDays(4), Status.APPROVED);
+        booking(now.minusDays(3), now.minusDays(2), Status.REJECTED);
+        booking(now.minusHours(1), now.plusHours(1), Status.APPROVED);
+        Booking nextStarting = booking(now.plusDays(1), now.plusDays(2), Status.APPROVED);
+        booking(now.plusDays(3), now.plusDays(4), Status.APPROVED);
+        booking(now.plusHours(12), now.plusHours(13), Status.WAITING);
+
+        ItemDto itemDto = findInListing();
+
+        assertThat(itemDto.getLastBooking()).isEqualTo(new ItemDto.Booking(endedLast.getId(), booker.getId()));
+        assertThat(itemDto.getNextBooking()).isEqualTo(new ItemDto.Booking(nextStarting.getId(), booker.getId()));
+    }
+
+    @Test
+    void ownerListingDoesNotShowBookingInProgressAsLast() {
+        booking(now.minusHours(1), now.plusHours(1), Status.APPROVED);
+
+        ItemDto itemDto = findInListing();
+
+        assertThat(itemDto.getLastBooking()).isNull();
+        assertThat(itemDto.getNextBooking()).isNull();
+    }
+
+    @Test
+    void itemPageShowsEarliestStartedAndLatestUpcomingBookingsInAnyStatus() {
+        Booking earliestStarted = booking(now.minusDays(10), now.minusDays(9), Status.WAITING);
+        booking(now.minusDays(5), now.minusDays(4), Status.APPROVED);
+        booking(now.plusDays(1), now.plusDays(2), Status.APPROVED);
+        Booking latestUpcoming = booking(now.plusDays(3), now.plusDays(4), Status.REJECTED);
+
+        ItemDto itemDto = itemService.getItem(item.getId(), owner.getId());
+
+        assertThat(itemDto.getLastBooking()).isEqualTo(new ItemDto.Booking(earliestStarted.getId(), booker.getId()));
+        assertThat(itemDto.getNextBooking()).isEqualTo(new ItemDto.Booking(latestUpcoming.getId(), booker.getId()));
+    }
+
+    @Test
+    void itemPageHidesBookingsFromOtherUsers() {
+        booking(now.minusDays(5), now.minusDays(4), Status.APPROVED);
+        booking(now.plusDays(1), now.plusDays(2), Status.APPROVED);
+
+        ItemDto itemDto = itemService.getItem(item.getId(), booker.getId());
+
+        assertThat(itemDto.getLastBooking()).isNull();
+        assertThat(itemDto.getNextBooking()).isNull();
+    }
+
+    @Test
+    void itemPageShowsCommentsToOwnerAndOthers() {
+        booking(now.minusDays(5), now.minusDays(4), Status.APPROVED);
+        Comment comment = new Comment();
+        comment.setText("Отличная дрель");
+        comment.setItem(item);
+        comment.setAuthor(booker);
+        comment.setCreated(now.minusDays(3).truncatedTo(ChronoUnit.SECONDS));
+        comment = commentRepository.save(comment);
+        ItemDto.Comment expected = new ItemDto.Comment(comment.getId(), comment.getText(), booker.getName(),
+                comment.getCreated());
+
+        ItemDto ownerView = itemService.getItem(item.getId(), owner.getId());
+        ItemDto bookerView = itemService.getItem(item.getId(), booker.getId());
+
+        assertThat(ownerView.getComments()).containsExactly(expected);
+        assertThat(ownerView.getLastBooking()).isNotNull();
+        assertThat(bookerView.getComments()).containsExactly(expected);
+    }
+
+    @Test
+    void ownerListingShowsNoCommentsAsEmptyList() {
+        Item other = new Item(null, "Пила", "Ручная пила", true);
+        other.setOwner(owner.getId());
+        other = itemRepository.save(other);
+
+        assertThat(itemService.getItemsByUserId(owner.getId(), 0, 10))
+                .extracting(ItemDto::getComments)
+                .containsExactly(List.of(), List.of());
+
+        Comment comment = new Comment();
+        comment.setText("Отличная дрель");
+        comment.setItem(item);
+        comment.setAuthor(booker);
+        comment.setCreated(now.truncatedTo(ChronoUnit.SECONDS));
+        commentRepository.save(comment);
+
+        List<ItemDto> items = itemService.getItemsByUserId(owner.getId(), 0, 10);
+        assertThat(items).extracting(ItemDto::getId).containsExactly(item.getId(), other.getId());
+        assertThat(items.get(0).getComments()).extracting(ItemDto.Comment::getText).containsExactly("Отличная дрель");
+        assertThat(items.get(1).getComments()).isEmpty();
+        assertThat(itemService.getItem(other.getId(), owner.getId()).getComments()).isEmpty();
+    }
+
+    private ItemDto findInListing() {
+        List<ItemDto> items = itemService.getItemsByUserId(owner.getId(), 0, 10);
+        assertThat(items).hasSize(1);
+        return items.get(0);
+    }
+
+    private User user() {
+        String name = UUID.randomUUID().toString();
+        return userRepository.save(new User(null, name, name + "@mail.ru"));
+    }
+
+    private Booking booking(LocalDateTime start, LocalDateTime end, Status status) {
+        Booking booking = new Booking(null, start, end);
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStatus(status);
+        return bookingRepository.save(booking);
+    }
+}
@@ -0,0 +1,203 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+import ru.practicum.shareit.exception.QueryBudgetExceededException;
+
+import javax.servlet.DispatcherType;
+import java.sql.ResultSet;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class QueryBudgetInterceptorTest {
+
+    private static final String ENDPOINT = "ItemController.getItem";
+
+    private final QueryCounter queryCounter = new QueryCounter();
+    private final QueryBudgetProperties properties = new QueryBudgetProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryBudgetInterceptor interceptor =
+            new QueryBudgetInterceptor(queryCounter, properties, meterRegistry);
+
+    private final ResultSet resultSet = mock(ResultSet.class);
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private HandlerMethod handler;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        handler = new HandlerMethod(new ItemController(), ItemController.class.getMethod("getItem"));
+        properties.getEndpoints().put(ENDPOINT, budget(2, 10));
+    }
+
+    @Test
+    void countsOfRequestAreRecordedPerEndpoint() {
+        interceptor.preHandle(request, response, handler);
+        query(2);
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertThat(summary("shareit.http.statements").totalAmount()).isEqualTo(2);
+        assertThat(summary("shareit.http.rows").totalAmount()).isEqualTo(2);
+        assertThat(queryCounter.current()).isNull();
+    }
+
+    @Test
+    void onlyRowsThatWereFetchedAreCounted() {
+        interceptor.preHandle(request, response, handler);
+        queryCounter.statementExecuted();
+        queryCounter.methodExecuted(resultSet, "next", true);
+        queryCounter.methodExecuted(resultSet, "next", false);
+        queryCounter.methodExecuted(resultSet, "getLong", 1L);
+        queryCounter.methodExecuted(new Object(), "next", true);
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertThat(summary("shareit.http.rows").totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    void queriesOutsideOfRequestsAreNotCounted() {
+        query(3);
+        interceptor.preHandle(request, response, new ResourceHttpRequestHandler());
+        query(1);
+        interceptor.afterCompletion(request, response, new ResourceHttpRequestHandler(), null);
+
+        assertThat(meterRegistry.find("shareit.http.statements").summary()).isNull();
+    }
+
+    @Test
+    void headersCarryCountsSoFar() {
+        interceptor.preHandle(request, response, handler);
+        query(1);
+        interceptor.beforeBodyWrite(request, response);
+        query(1);
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertThat(response.getHeader(QueryBudgetInterceptor.STATEMENTS_HEADER)).isEqualTo("1");
+        assertThat(response.getHeader(QueryBudgetInterceptor.ROWS_HEADER)).isEqualTo("1");
+        assertThat(summary("shareit.http.statements").totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void exceededBudgetIsOnlyLoggedInLogMode() {
+        interceptor.preHandle(request, response, handler);
+        query(3);
+
+        interceptor.beforeBodyWrite(request, response);
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertThat(response.getHeader(QueryBudgetInterceptor.STATEMENTS_HEADER)).isEqualTo("3");
+        assertThat(summary("shareit.http.statements").totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void exceededBudgetFailsTheResponseInFailMode() {
+        properties.setMode(QueryBudgetProperties.Mode.FAIL);
+        interceptor.preHandle(request, response, handler);
+        query(3);
+
+        assertThatThrownBy(() -> interceptor.beforeBodyWrite(request, response))
+                .isInstanceOf(QueryBudgetExceededException.class)
+                .hasMessageContaining(ENDPOINT);
+
+        // the error response is written through the advice again and must not fail a second time
+        interceptor.beforeBodyWrite(request, response);
+        interceptor.afterCompletion(request, response, handler, null);
+        assertThat(summary("shareit.http.statements").totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void budgetWithinLimitsDoesNotFail() {
+        properties.setMode(QueryBudgetProperties.Mode.FAIL);
+        interceptor.preHandle(request, response, handler);
+        query(2);
+
+        interceptor.beforeBodyWrite(request, response);
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertThat(response.getHeader(QueryBudgetInterceptor.STATEMENTS_HEADER)).isEqualTo("2");
+    }
+
+    @Test
+    void rowLimitIsCheckedOnItsOwn() {
+        properties.setMode(QueryBudgetProperties.Mode.FAIL);
+        properties.getEndpoints().put(ENDPOINT, budget(null, 1));
+        interceptor.preHandle(request, response, handler);
+        query(2);
+
+        assertThatThrownBy(() -> interceptor.beforeBodyWrite(request, response))
+                .isInstanceOf(QueryBudgetExceededException.class);
+    }
+
+    @Test
+    void endpointWithoutBudgetUsesDefault() {
+        properties.setMode(QueryBudgetProperties.Mode.FAIL);
+        properties.getEndpoints().clear();
+        interceptor.preHandle(request, response, handler);
+        query(100);
+
+        interceptor.beforeBodyWrite(request, response);
+
+        properties.setDefaultBudget(budget(1, null));
+        assertThatThrownBy(() -> interceptor.beforeBodyWrite(request, response))
+                .isInstanceOf(QueryBudgetExceededException.class);
+    }
+
+    /**
+     * A streamed response is written on another thread after the request thread has let go of the request;
+     * its queries count towards the request and are recorded once, by the async dispatch.
+     */
+    @Test
+    void streamedResponseCountsTowardsItsRequest() throws Exception {
+        interceptor.preHandle(request, response, handler);
+        query(1);
+        Runnable stream = queryCounter.propagate(() -> query(4));
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+        assertThat(queryCounter.current()).isNull();
+
+        CompletableFuture.runAsync(stream).get();
+        query(7);
+
+        request.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(request, response, handler);
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertThat(summary("shareit.http.statements").count()).isEqualTo(1);
+        assertThat(summary("shareit.http.statements").totalAmount()).isEqualTo(5);
+    }
+
+    private void query(int statements) {
+        for (int i = 0; i < statements; i++) {
+            queryCounter.statementExecuted();
+            queryCounter.methodExecuted(resultSet, "next", true);
+        }
+    }
+
+    private DistributionSummary summary(String name) {
+        return meterRegistry.get(name).tag("endpoint", ENDPOINT).summary();
+    }
+
+    private static QueryBudgetProperties.Budget budget(Integer statements, Integer rows) {
+        QueryBudgetProperties.Budget budget = new QueryBudgetProperties.Budget();
+        budget.setStatements(statements);
+        budget.setRows(rows);
+        return budget;
+    }
+
+    /**
+     * Stands in for a controller: the endpoint is named after the handler's class and method.
+     */
+    public static class ItemController {
+
+        public void getItem() {
+        }
+    }
+}